@@ -0,0 +1,63 @@
+package com.example.authservice.bench;
+
+import com.example.authservice.security.AccessTokenRevocations;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request deny-list check with {@code revoked} tokens on the list, for a token that is not
+ * revoked (the common case, answered by the Bloom filter) and for one that is.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccessTokenRevocationBenchmark {
+    @Param({"1000", "100000"})
+    public int revoked;
+
+    private ConfigurableApplicationContext ctx;
+    private AccessTokenRevocations revocations;
+    private String[] live;
+    private String[] dead;
+    private int next;
+
+    @Setup
+    public void setup() {
+        ctx = BenchApp.start("logging.level.org.hibernate.SQL=WARN");
+        revocations = ctx.getBean(AccessTokenRevocations.class);
+        Instant expiry = Instant.now().plus(1, ChronoUnit.HOURS);
+        dead = new String[1024];
+        for (int i = 0; i < revoked; i++) {
+            String jti = UUID.randomUUID().toString();
+            revocations.revoke(jti, expiry);
+            if (i < dead.length) dead[i] = jti;
+        }
+        // with fewer revocations than slots, cycle through them so no probe is for a null jti
+        for (int i = revoked; i < dead.length; i++) dead[i] = dead[i % revoked];
+        live = new String[1024];
+        for (int i = 0; i < live.length; i++) live[i] = UUID.randomUUID().toString();
+    }
+
+    @TearDown
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @Benchmark
+    public boolean notRevoked() {
+        return revocations.isRevoked(live[next++ & (live.length - 1)]);
+    }
+
+    @Benchmark
+    public boolean revoked() {
+        return revocations.isRevoked(dead[next++ & (dead.length - 1)]);
+    }
+}
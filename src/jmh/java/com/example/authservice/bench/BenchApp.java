@@ -0,0 +1,52 @@
+package com.example.authservice.bench;
+
+import com.example.authservice.AuthServiceApplication;
+import com.example.authservice.domain.user.User;
+import com.example.authservice.domain.user.UserRepository;
+import com.example.authservice.enums.UserRoles;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.*;
+
+/**
+ * Boots the service against an in-memory H2 database (MySQL mode) for benchmarks.
+ */
+public final class BenchApp {
+    private BenchApp() {
+    }
+
+    public static ConfigurableApplicationContext start(String... overrides) {
+        Map<String, String> props = new LinkedHashMap<>();
+        props.put("server.port", "0");
+        props.put("spring.datasource.url", "jdbc:h2:mem:bench-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        props.put("spring.datasource.driver-class-name", "org.h2.Driver");
+        props.put("spring.datasource.username", "sa");
+        props.put("spring.datasource.password", "");
+        props.put("spring.jpa.properties.hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        props.put("spring.jpa.show-sql", "false");
+        props.put("spring.jpa.properties.hibernate.format_sql", "false");
+        props.put("logging.level.root", "WARN");
+        props.put("logging.level.org.hibernate.SQL", "WARN");
+        props.put("logging.level.org.hibernate.type.descriptor.sql.BasicBinder", "WARN");
+        for (String o : overrides) {
+            int eq = o.indexOf('=');
+            props.put(o.substring(0, eq), o.substring(eq + 1));
+        }
+        String[] args = props.entrySet().stream().map(e -> "--" + e.getKey() + "=" + e.getValue()).toArray(String[]::new);
+        return new SpringApplicationBuilder(AuthServiceApplication.class).run(args);
+    }
+
+    public static User seedUser(ConfigurableApplicationContext ctx, String email, String encodedPassword) {
+        User u = new User();
+        u.setEmail(email);
+        u.setPassword(encodedPassword);
+        u.setFirstName("Bench");
+        u.setLastName("User");
+        u.setPhoneNumber("+1" + Math.abs(email.hashCode()));
+        u.setRole(UserRoles.USER);
+        u.setEmailVerified(true);
+        u.setAccountLocked(false);
+        return ctx.getBean(UserRepository.class).save(u);
+    }
+}
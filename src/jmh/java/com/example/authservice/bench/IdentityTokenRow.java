@@ -0,0 +1,26 @@
+package com.example.authservice.bench;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Refresh-token-shaped row keyed by an IDENTITY column, the id strategy used before sequences.
+ */
+@Entity
+@Table(name = "bench_identity_rows")
+@Getter
+@Setter
+@NoArgsConstructor
+public class IdentityTokenRow {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(nullable = false, length = 64)
+    private String tokenHash;
+    private Long userId;
+    private Instant expiresAt;
+    private boolean revoked;
+    private Instant createdAt;
+}
@@ -0,0 +1,54 @@
+package com.example.authservice.bench;
+
+import com.example.authservice.security.JwtService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Access-token signing and (uncached) verification cost per signature algorithm.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAlgorithmBenchmark {
+    private static final Map<String, Object> CLAIMS = Map.of("uid", "1", "email_verified", true, "role", "USER");
+
+    @Param({"RS256", "ES256", "EdDSA"})
+    public String alg;
+
+    private ConfigurableApplicationContext ctx;
+    private JwtService jwt;
+    private String[] tokens;
+    private int next;
+
+    @Setup
+    public void setup() {
+        ctx = BenchApp.start("app.jwt.algorithm=" + alg, "app.jwt.verifiedCacheSize=0");
+        jwt = ctx.getBean(JwtService.class);
+        tokens = new String[1024];
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = jwt.buildAccessToken("user" + i + "@example.com", CLAIMS);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @Benchmark
+    public String sign() {
+        return jwt.buildAccessToken("bench@example.com", CLAIMS);
+    }
+
+    @Benchmark
+    public Object verify() {
+        return jwt.verify(tokens[next++ & (tokens.length - 1)]);
+    }
+}
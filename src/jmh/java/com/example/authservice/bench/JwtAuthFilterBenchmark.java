@@ -0,0 +1,54 @@
+package com.example.authservice.bench;
+
+import com.example.authservice.domain.user.User;
+import com.example.authservice.security.JwtAuthFilter;
+import com.example.authservice.security.JwtService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.*;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of JwtAuthFilter with a DB-backed principal versus a claims-backed one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthFilterBenchmark {
+
+    @Param({"db", "claims"})
+    public String mode;
+
+    private ConfigurableApplicationContext ctx;
+    private JwtAuthFilter filter;
+    private String bearer;
+
+    @Setup
+    public void setup() {
+        ctx = BenchApp.start("app.security.principal=" + mode);
+        User u = BenchApp.seedUser(ctx, "bench@example.com", "{noop}unused");
+        filter = ctx.getBean(JwtAuthFilter.class);
+        bearer = "Bearer " + ctx.getBean(JwtService.class).buildAccessToken(u.getEmail(),
+                Map.of("uid", u.getId().toString(), "email_verified", true, "role", u.getRole().name()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @Benchmark
+    public Object filter() throws Exception {
+        SecurityContextHolder.clearContext();
+        var req = new MockHttpServletRequest("GET", "/api/v1/auth/users/search");
+        req.addHeader("Authorization", bearer);
+        filter.doFilter(req, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.authservice.bench;
+
+import com.example.authservice.security.JwtService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtService build and parse paths as the login and request paths use them, with the
+ * verified-token cache on (default size) and off.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+    private static final Map<String, Object> CLAIMS = Map.of("uid", "42", "email_verified", true, "role", "USER");
+
+    @Param({"10000", "0"})
+    public int verifiedCacheSize;
+
+    private ConfigurableApplicationContext ctx;
+    private JwtService jwt;
+    private String token;
+
+    @Setup
+    public void setup() {
+        ctx = BenchApp.start("app.jwt.verifiedCacheSize=" + verifiedCacheSize);
+        jwt = ctx.getBean(JwtService.class);
+        token = jwt.buildAccessToken("bench@example.com", CLAIMS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @Benchmark
+    public String buildAccessToken() {
+        return jwt.buildAccessToken("bench@example.com", CLAIMS);
+    }
+
+    @Benchmark
+    public boolean isTokenValid() {
+        return jwt.isTokenValid(token);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwt.extractUsername(token);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.authservice.bench;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BCrypt verification per cost factor: bare BCryptPasswordEncoder against the application's
+ * encoder bean, which adds the {id} prefix dispatch and the bounded hashing pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordVerifyBenchmark {
+    private static final String PASSWORD = "correct-horse-battery";
+
+    @Param({"10", "12"})
+    public int strength;
+
+    private ConfigurableApplicationContext ctx;
+    private BCryptPasswordEncoder bare;
+    private PasswordEncoder app;
+    private String hash;
+    private String prefixedHash;
+
+    @Setup
+    public void setup() {
+        ctx = BenchApp.start("app.security.hashing.strength=" + strength, "app.security.hashing.targetMillis=0");
+        app = ctx.getBean(PasswordEncoder.class);
+        bare = new BCryptPasswordEncoder(strength);
+        hash = bare.encode(PASSWORD);
+        prefixedHash = "{bcrypt}" + hash;
+    }
+
+    @TearDown
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @Benchmark
+    public boolean bare() {
+        return bare.matches(PASSWORD, hash);
+    }
+
+    @Benchmark
+    public boolean appEncoder() {
+        return app.matches(PASSWORD, prefixedHash);
+    }
+}
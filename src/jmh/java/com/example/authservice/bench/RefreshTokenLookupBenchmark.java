@@ -0,0 +1,66 @@
+package com.example.authservice.bench;
+
+import com.example.authservice.application.auth.AuthService;
+import com.example.authservice.domain.user.User;
+import com.example.authservice.web.dto.LoginRequest;
+import com.example.authservice.web.dto.RefreshTokenRequest;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Refresh and logout latency with a large refresh_tokens table, so lookups that are not
+ * served by an index show up as a function of {@code rows}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RefreshTokenLookupBenchmark {
+
+    @Param({"100000", "10000000"})
+    public int rows;
+
+    private ConfigurableApplicationContext ctx;
+    private AuthService auth;
+    private final RefreshTokenRequest chain = new RefreshTokenRequest();
+    private final RefreshTokenRequest fixed = new RefreshTokenRequest();
+
+    @Setup
+    public void setup() {
+        ctx = BenchApp.start("app.security.hashing.targetMillis=0", "app.security.hashing.strength=4");
+        User u = BenchApp.seedUser(ctx, "bench@example.com", ctx.getBean(PasswordEncoder.class).encode("bench-password"));
+        ctx.getBean(JdbcTemplate.class).update("INSERT INTO refresh_tokens (id, token_hash, user_id, expires_at, revoked, created_at) "
+                + "SELECT X + 1000000000, RAWTOHEX(HASH('SHA-256', CAST(X AS VARCHAR))), ?, DATEADD('DAY', 7, CURRENT_TIMESTAMP), FALSE, CURRENT_TIMESTAMP "
+                + "FROM SYSTEM_RANGE(1, ?)", u.getId(), rows);
+        auth = ctx.getBean(AuthService.class);
+        LoginRequest login = new LoginRequest();
+        login.setEmail(u.getEmail());
+        login.setPassword("bench-password");
+        chain.setRefreshToken(auth.login(login, "127.0.0.1").getRefreshToken());
+        fixed.setRefreshToken(auth.login(login, "127.0.0.1").getRefreshToken());
+    }
+
+    @TearDown
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @Benchmark
+    public String refresh() {
+        String next = auth.refresh(chain).getRefreshToken();
+        chain.setRefreshToken(next);
+        return next;
+    }
+
+    @Benchmark
+    public RefreshTokenRequest logout() {
+        auth.logout(fixed, null);
+        return fixed;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.authservice.bench;
+
+import com.example.authservice.application.auth.AuthService;
+import com.example.authservice.application.user.UserImportService;
+import com.example.authservice.web.dto.RegisterRequest;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to onboard {@code rows} users through the bulk import versus one register() call per
+ * user. BCrypt runs at cost 4 so the comparison is dominated by the database path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class UserImportBenchmark {
+
+    @Param({"5000"})
+    public int rows;
+
+    private ConfigurableApplicationContext ctx;
+    private UserImportService importer;
+    private AuthService auth;
+    private int batch;
+
+    @Setup
+    public void setup() {
+        ctx = BenchApp.start("app.security.hashing.targetMillis=0", "app.security.hashing.strength=4");
+        importer = ctx.getBean(UserImportService.class);
+        auth = ctx.getBean(AuthService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @Benchmark
+    public Object bulkImport() throws Exception {
+        int b = ++batch;
+        var sb = new StringBuilder(rows * 100);
+        for (int i = 0; i < rows; i++) {
+            sb.append("{\"email\":\"b").append(b).append('-').append(i).append("@example.com\",\"password\":\"password123\",\"phoneNumber\":\"+1")
+                    .append(b * 10_000_000L + i).append("\"}\n");
+        }
+        return importer.importNdjson(new ByteArrayInputStream(sb.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Benchmark
+    public int registerOneByOne() {
+        int b = ++batch;
+        for (int i = 0; i < rows; i++) {
+            var req = new RegisterRequest();
+            req.setEmail("r" + b + "-" + i + "@example.com");
+            req.setPassword("password123");
+            req.setPhoneNumber("+1" + (b * 10_000_000L + i));
+            auth.register(req);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.authservice.bench;
+
+import com.example.authservice.application.auth.AuthService;
+import com.example.authservice.domain.user.User;
+import com.example.authservice.domain.user.UserRepository;
+import com.example.authservice.domain.user.UserView;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full entity hydration versus the UserView projection for the user read paths.
+ * Run with {@code -prof gc} to compare bytes allocated per call. {@code pageResponse} minus
+ * {@code pageView} is the cost of mapping a page to UserResponse DTOs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserReadBenchmark {
+    private static final int PAGE = 100;
+
+    private ConfigurableApplicationContext ctx;
+    private UserRepository users;
+    private EntityManager em;
+    private TransactionTemplate readOnly;
+    private AuthService authService;
+
+    @Setup
+    public void setup() {
+        ctx = BenchApp.start();
+        for (int i = 0; i < 1000; i++) BenchApp.seedUser(ctx, "user" + i + "@example.com", "{noop}unused");
+        users = ctx.getBean(UserRepository.class);
+        em = ctx.getBean(EntityManager.class);
+        readOnly = new TransactionTemplate(ctx.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        authService = ctx.getBean(AuthService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @Benchmark
+    public Object byEmailEntity() {
+        return readOnly.execute(s -> users.findByEmail("user500@example.com").orElseThrow());
+    }
+
+    @Benchmark
+    public Object byEmailView() {
+        return readOnly.execute(s -> users.findViewByEmail("user500@example.com").orElseThrow());
+    }
+
+    @Benchmark
+    public Object pageEntity() {
+        return readOnly.execute(s -> em.createQuery("select u from User u where u.id > :after order by u.id", User.class)
+                .setParameter("after", 0L).setMaxResults(PAGE).getResultList());
+    }
+
+    @Benchmark
+    public List<UserView> pageView() {
+        return readOnly.execute(s -> users.findViewsAfter(0L, Limit.of(PAGE)));
+    }
+
+    @Benchmark
+    public Object pageResponse() {
+        return authService.getAllUsers(0L, PAGE);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.authservice.bench;
+
+import com.example.authservice.domain.user.User;
+import com.example.authservice.security.JwtService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.*;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP throughput of an authenticated, JDBC-backed endpoint with Tomcat on platform threads
+ * versus virtual threads. Client concurrency is set with {@code -t}; it only separates the two
+ * once it exceeds Tomcat's 200 platform workers. Pins show up as jvm.threads.virtual.pinned.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(256)
+@Fork(1)
+public class VirtualThreadsBenchmark {
+
+    @Param({"false", "true"})
+    public boolean virtual;
+
+    private ConfigurableApplicationContext ctx;
+    private HttpClient http;
+    private HttpRequest search;
+
+    @Setup
+    public void setup() {
+        ctx = BenchApp.start("spring.threads.virtual.enabled=" + virtual);
+        User u = BenchApp.seedUser(ctx, "bench@example.com", "{noop}unused");
+        String token = ctx.getBean(JwtService.class).buildAccessToken(u.getEmail(),
+                Map.of("uid", u.getId().toString(), "email_verified", true, "role", "ADMIN"));
+        String port = ctx.getEnvironment().getProperty("local.server.port");
+        http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        search = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/auth/users/search?email=" + u.getEmail()))
+                .header("Authorization", "Bearer " + token).GET().build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @Benchmark
+    public int search() throws Exception {
+        return http.send(search, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
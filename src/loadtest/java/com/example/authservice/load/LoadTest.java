@@ -0,0 +1,256 @@
+package com.example.authservice.load;
+
+import com.example.authservice.bench.BenchApp;
+import com.example.authservice.domain.user.User;
+import com.example.authservice.domain.user.UserRepository;
+import com.example.authservice.enums.UserRoles;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.*;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load generator. Boots the service (embedded H2 unless spring.datasource.* is
+ * overridden), seeds users, then drives a weighted mix of login, refresh, logout and
+ * authenticated search at a fixed arrival rate and reports latency percentiles per endpoint.
+ * Latency is measured from each request's scheduled start, so a stalled server shows up in
+ * the tail instead of quietly lowering the offered load.
+ * <p>
+ * {@code mvn -Ploadtest test-compile exec:exec -Dload.args="users=1000 rps=200 duration=60"}
+ * <p>
+ * Options (key=value): users, rps, warmup and duration (seconds), mix (op:weight,...),
+ * maxInFlight, out (JSON report path). Keys containing a dot (spring.*, app.*, ...) are passed
+ * to the application.
+ */
+public final class LoadTest {
+    private static final String PASSWORD = "LoadTest#Passw0rd";
+    private static final String ADMIN = "loadadmin@load.test";
+    private static final List<String> OPS = List.of("login", "refresh", "logout", "search");
+    private static final long MAX_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final Map<String, String> opts;
+    private final ObjectMapper json = new ObjectMapper();
+    private final HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5)).build();
+    private final Map<String, Recorder> latency = new HashMap<>();
+    private final Map<String, Map<Integer, LongAdder>> statuses = new ConcurrentHashMap<>();
+    private final Queue<String> refreshTokens = new ConcurrentLinkedQueue<>();
+    private final LongAdder dropped = new LongAdder();
+    private String base;
+    private int users;
+    private volatile String adminBearer;
+    private long measureFrom;
+
+    private LoadTest(Map<String, String> opts) {
+        this.opts = opts;
+        for (String op : OPS) latency.put(op, new Recorder(MAX_MICROS, 3));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = new LinkedHashMap<>();
+        for (String a : args) {
+            int eq = a.indexOf('=');
+            if (eq < 0) throw new IllegalArgumentException("Expected key=value, got " + a);
+            opts.put(a.substring(0, eq), a.substring(eq + 1));
+        }
+        new LoadTest(opts).run();
+        System.exit(0);
+    }
+
+    private void run() throws Exception {
+        users = Integer.parseInt(opts.getOrDefault("users", "500"));
+        int rps = Integer.parseInt(opts.getOrDefault("rps", "100"));
+        long warmup = Long.parseLong(opts.getOrDefault("warmup", "10"));
+        long duration = Long.parseLong(opts.getOrDefault("duration", "60"));
+        int maxInFlight = Integer.parseInt(opts.getOrDefault("maxInFlight", "5000"));
+        String[] mix = weightedMix(opts.getOrDefault("mix", "login:10,refresh:30,logout:5,search:55"));
+
+        // every simulated client shares one IP, so the login limiter is off unless asked for
+        List<String> overrides = new ArrayList<>(List.of("server.port=0", "logging.level.root=WARN",
+                "app.security.loginLimit.enabled=false"));
+        opts.forEach((k, v) -> {
+            if (k.contains(".")) overrides.add(k + "=" + v);
+        });
+        try (ConfigurableApplicationContext ctx = BenchApp.start(overrides.toArray(String[]::new));
+             ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+             ScheduledExecutorService admin = Executors.newSingleThreadScheduledExecutor()) {
+            base = "http://localhost:" + ctx.getEnvironment().getProperty("local.server.port") + "/api/v1/auth";
+            seed(ctx);
+            admin.scheduleAtFixedRate(this::adminLogin, 0, 5, TimeUnit.MINUTES);
+            for (int i = 0; i < Math.min(users, 50); i++) login();
+
+            System.out.printf("Seeded %d users; warmup %ds then %ds at %d rps%n", users, warmup, duration, rps);
+            Semaphore inFlight = new Semaphore(maxInFlight);
+            long interval = TimeUnit.SECONDS.toNanos(1) / rps;
+            long start = System.nanoTime();
+            measureFrom = start + TimeUnit.SECONDS.toNanos(warmup);
+            long end = measureFrom + TimeUnit.SECONDS.toNanos(duration);
+            for (long next = start; next < end; next += interval) {
+                long wait = next - System.nanoTime();
+                if (wait > 0) LockSupport.parkNanos(wait);
+                if (!inFlight.tryAcquire()) {
+                    if (next >= measureFrom) dropped.increment();
+                    continue;
+                }
+                long intended = next;
+                String op = mix[ThreadLocalRandom.current().nextInt(mix.length)];
+                workers.execute(() -> {
+                    try {
+                        execute(op, intended);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+            workers.shutdown();
+            workers.awaitTermination(30, TimeUnit.SECONDS);
+            report(duration);
+        }
+    }
+
+    private void execute(String op, long intended) {
+        int status;
+        try {
+            status = switch (op) {
+                case "login" -> login();
+                case "refresh" -> withRefreshToken(t -> post("/refresh", t, true));
+                case "logout" -> withRefreshToken(t -> post("/logout", t, false));
+                default -> search();
+            };
+        } catch (Exception e) {
+            status = -1;
+        }
+        if (intended < measureFrom) return;   // warmup
+        latency.get(op).recordValue(Math.min(MAX_MICROS, Math.max(0, (System.nanoTime() - intended) / 1000)));
+        statuses.computeIfAbsent(op, k -> new ConcurrentHashMap<>()).computeIfAbsent(status, k -> new LongAdder()).increment();
+    }
+
+    private interface TokenCall {
+        int call(String refreshToken) throws Exception;
+    }
+
+    // refresh and logout need a live session; when the pool is drained the call logs in first
+    private int withRefreshToken(TokenCall call) throws Exception {
+        String token = refreshTokens.poll();
+        if (token == null) {
+            login();
+            token = refreshTokens.poll();
+            if (token == null) return -1;
+        }
+        return call.call(token);
+    }
+
+    private int login() throws Exception {
+        String email = "user" + ThreadLocalRandom.current().nextInt(users) + "@load.test";
+        return post("/login", Map.of("email", email, "password", PASSWORD), true);
+    }
+
+    private int post(String path, String refreshToken, boolean keepSession) throws Exception {
+        return post(path, Map.of("refreshToken", refreshToken), keepSession);
+    }
+
+    private int post(String path, Map<String, String> body, boolean keepSession) throws Exception {
+        HttpResponse<byte[]> r = http.send(HttpRequest.newBuilder(URI.create(base + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(json.writeValueAsBytes(body))).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        if (keepSession && r.statusCode() == 200) {
+            refreshTokens.offer(json.readTree(r.body()).path("data").path("refreshToken").asText());
+        }
+        return r.statusCode();
+    }
+
+    private int search() throws Exception {
+        String email = "user" + ThreadLocalRandom.current().nextInt(users) + "@load.test";
+        return http.send(HttpRequest.newBuilder(URI.create(base + "/users/search?email=" + email))
+                .header("Authorization", adminBearer).GET().build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private void adminLogin() {
+        try {
+            HttpResponse<byte[]> r = http.send(HttpRequest.newBuilder(URI.create(base + "/login"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(json.writeValueAsBytes(Map.of("email", ADMIN, "password", PASSWORD)))).build(),
+                    HttpResponse.BodyHandlers.ofByteArray());
+            JsonNode data = json.readTree(r.body()).path("data");
+            adminBearer = "Bearer " + data.path("accessToken").asText();
+        } catch (Exception e) {
+            System.err.println("Admin login failed: " + e);
+        }
+    }
+
+    private void seed(ConfigurableApplicationContext ctx) {
+        String hash = ctx.getBean(PasswordEncoder.class).encode(PASSWORD);
+        UserRepository repo = ctx.getBean(UserRepository.class);
+        List<User> batch = new ArrayList<>();
+        batch.add(user(ADMIN, "+19990000000", hash, UserRoles.ADMIN));
+        for (int i = 0; i < users; i++) {
+            batch.add(user("user" + i + "@load.test", String.format("+1555%07d", i), hash, UserRoles.USER));
+            if (batch.size() == 1000) {
+                repo.saveAll(batch);
+                batch.clear();
+            }
+        }
+        repo.saveAll(batch);
+    }
+
+    private static User user(String email, String phone, String hash, UserRoles role) {
+        User u = new User();
+        u.setEmail(email);
+        u.setPassword(hash);
+        u.setFirstName("Load");
+        u.setLastName("Test");
+        u.setPhoneNumber(phone);
+        u.setRole(role);
+        u.setEmailVerified(true);
+        u.setAccountLocked(false);
+        return u;
+    }
+
+    private static String[] weightedMix(String spec) {
+        List<String> slots = new ArrayList<>();
+        for (String part : spec.split(",")) {
+            String[] kv = part.trim().split(":");
+            if (!OPS.contains(kv[0])) throw new IllegalArgumentException("Unknown op " + kv[0] + ", expected one of " + OPS);
+            for (int i = 0; i < Integer.parseInt(kv[1]); i++) slots.add(kv[0]);
+        }
+        if (slots.isEmpty()) throw new IllegalArgumentException("Empty mix " + spec);
+        return slots.toArray(String[]::new);
+    }
+
+    private void report(long seconds) throws Exception {
+        Map<String, Object> out = new LinkedHashMap<>();
+        System.out.printf("%n%-8s %9s %9s %8s %9s %9s %9s %9s  statuses%n",
+                "endpoint", "count", "errors", "rps", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (String op : OPS) {
+            Histogram h = latency.get(op).getIntervalHistogram();
+            if (h.getTotalCount() == 0) continue;
+            Map<Integer, Long> codes = new TreeMap<>();
+            statuses.getOrDefault(op, Map.of()).forEach((k, v) -> codes.put(k, v.sum()));
+            long errors = codes.entrySet().stream().filter(e -> e.getKey() < 200 || e.getKey() >= 300).mapToLong(Map.Entry::getValue).sum();
+            double p50 = h.getValueAtPercentile(50) / 1000.0, p99 = h.getValueAtPercentile(99) / 1000.0;
+            double p999 = h.getValueAtPercentile(99.9) / 1000.0, max = h.getMaxValue() / 1000.0;
+            double rps = (double) h.getTotalCount() / seconds;
+            System.out.printf("%-8s %9d %9d %8.1f %9.2f %9.2f %9.2f %9.2f  %s%n", op, h.getTotalCount(), errors, rps, p50, p99, p999, max, codes);
+            out.put(op, Map.of("count", h.getTotalCount(), "errors", errors, "rps", rps,
+                    "p50Ms", p50, "p99Ms", p99, "p999Ms", p999, "maxMs", max, "statuses", codes));
+        }
+        System.out.printf("dropped (maxInFlight reached): %d%n", dropped.sum());
+        out.put("dropped", dropped.sum());
+        out.put("options", opts);
+        File file = new File(opts.getOrDefault("out", "target/loadtest-result.json"));
+        json.writerWithDefaultPrettyPrinter().writeValue(file, out);
+        System.out.println("Report written to " + file);
+    }
+}
@@ -2,18 +2,22 @@ package com.example.authservice.application.auth;
 
 import com.example.authservice.web.dto.*;
 
-import java.util.List;
+import java.util.function.Consumer;
 
 public interface AuthService {
     UserResponse register(RegisterRequest req);
 
-    JwtResponse login(LoginRequest req);
+    JwtResponse login(LoginRequest req, String clientIp);
 
     JwtResponse refresh(RefreshTokenRequest req);
 
-    void logout(RefreshTokenRequest req);
+    void logout(RefreshTokenRequest req, String accessToken);
 
-    List<UserResponse> getAllUsers();
+    int revokeAllSessions(Long userId);
+
+    UserPageResponse getAllUsers(long after, int limit);
+
+    void streamAllUsers(Consumer<UserResponse> sink);
 
     UserResponse getUserByFilter(String email, String phoneNumber);
 }
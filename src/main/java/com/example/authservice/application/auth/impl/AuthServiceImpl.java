@@ -1,13 +1,29 @@
 package com.example.authservice.application.auth.impl;
 
 import com.example.authservice.application.auth.AuthService;
+import com.example.authservice.common.exception.ConflictException;
+import com.example.authservice.common.exception.ServiceOverloadedException;
 import com.example.authservice.domain.token.*;
 import com.example.authservice.domain.user.*;
 import com.example.authservice.enums.UserRoles;
+import com.example.authservice.common.exception.TooManyRequestsException;
+import com.example.authservice.security.AccessTokenRevocations;
+import com.example.authservice.security.AccountStatusCache;
 import com.example.authservice.security.JwtService;
+import com.example.authservice.security.LoginAttemptTracker;
+import com.example.authservice.security.LoginThrottle;
 import com.example.authservice.web.dto.*;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.authentication.*;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -15,7 +31,9 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.*;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class AuthServiceImpl implements AuthService {
@@ -25,157 +43,277 @@ public class AuthServiceImpl implements AuthService {
     private final AuthenticationManager authenticationManager;
     private final JwtService jwtService;
     private final RefreshTokenRepository refreshTokenRepository;
+    private final UserCache userCache;
+    private final LastLoginRecorder lastLoginRecorder;
+    private final MeterRegistry meterRegistry;
+    private final LoginThrottle loginThrottle;
+    private final LoginAttemptTracker loginAttempts;
+    private final AccessTokenRevocations accessTokenRevocations;
+    private final AccountStatusCache accountStatus;
+
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final String EMAIL_TAKEN = "Email already registered";
+    private static final String PHONE_TAKEN = "Phone number already registered";
 
     @Value("${app.jwt.refreshDays:7}")
     private long refreshDays;
 
     public AuthServiceImpl(UserRepository userRepository, PasswordEncoder passwordEncoder,
                            AuthenticationManager authenticationManager, JwtService jwtService,
-                           RefreshTokenRepository refreshTokenRepository) {
+                           RefreshTokenRepository refreshTokenRepository, UserCache userCache,
+                           LastLoginRecorder lastLoginRecorder, MeterRegistry meterRegistry,
+                           LoginThrottle loginThrottle, LoginAttemptTracker loginAttempts,
+                           AccessTokenRevocations accessTokenRevocations, AccountStatusCache accountStatus) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.authenticationManager = authenticationManager;
         this.jwtService = jwtService;
         this.refreshTokenRepository = refreshTokenRepository;
+        this.userCache = userCache;
+        this.lastLoginRecorder = lastLoginRecorder;
+        this.meterRegistry = meterRegistry;
+        this.loginThrottle = loginThrottle;
+        this.loginAttempts = loginAttempts;
+        this.accessTokenRevocations = accessTokenRevocations;
+        this.accountStatus = accountStatus;
     }
 
     @Override
     @Transactional
     public UserResponse register(RegisterRequest request) {
-        // Check if email or phone number already exists
-        if (userRepository.existsByEmail(request.getEmail())) {
-            throw new IllegalArgumentException("Email already registered");
-        }
-        if (userRepository.existsByPhoneNumber(request.getPhoneNumber())) {
-            throw new IllegalArgumentException("Phone number already registered");
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            // One lookup for both unique fields, before spending a hash on a doomed request
+            List<UserView> clashes = userRepository.findViewsByEmailOrPhoneNumber(request.getEmail(), request.getPhoneNumber());
+            if (clashes.stream().anyMatch(u -> u.email().equalsIgnoreCase(request.getEmail()))) {
+                outcome = "conflict";
+                throw new ConflictException(EMAIL_TAKEN);
+            }
+            if (!clashes.isEmpty()) {
+                outcome = "conflict";
+                throw new ConflictException(PHONE_TAKEN);
+            }
+
+            // Create new user
+            User user = new User();
+            user.setEmail(request.getEmail());
+            user.setPassword(passwordEncoder.encode(request.getPassword()));
+            user.setFirstName(request.getFirstName());
+            user.setLastName(request.getLastName());
+            user.setPhoneNumber(request.getPhoneNumber());
+            user.setDateOfBirth(request.getDateOfBirth());
+            user.setAddress(request.getAddress());
+            user.setRole(UserRoles.USER);   // assign USER role
+            user.setEmailVerified(false);
+            user.setAccountLocked(false);
+
+            // Save user; the unique constraints still decide races between concurrent sign-ups
+            try {
+                userRepository.saveAndFlush(user);
+            } catch (DataIntegrityViolationException e) {
+                outcome = "conflict";
+                throw conflictFor(e);
+            }
+            userCache.evict(user.getEmail());
+
+            outcome = "success";
+            // Convert to UserResponse DTO before returning
+            return mapToUserResponse(user);
+        } finally {
+            sample.stop(timer("register", outcome));
         }
-
-        // Create new user
-        User user = new User();
-        user.setEmail(request.getEmail());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
-        user.setFirstName(request.getFirstName());
-        user.setLastName(request.getLastName());
-        user.setPhoneNumber(request.getPhoneNumber());
-        user.setDateOfBirth(request.getDateOfBirth());
-        user.setAddress(request.getAddress());
-        user.setRole(UserRoles.USER);   // assign USER role
-        user.setEmailVerified(false);
-        user.setAccountLocked(false);
-
-        // Save user
-        userRepository.save(user);
-
-        // Convert to UserResponse DTO before returning
-        return mapToUserResponse(user);
     }
 
+    // Not transactional: a transaction holds a pooled connection from its start, and a login spends
+    // most of its time queued for and running BCrypt. The user lookup, the legacy-hash upgrade and
+    // the refresh-token insert each run in their own short repository transaction.
     @Override
-    @Transactional
-    public JwtResponse login(LoginRequest request) {
+    public JwtResponse login(LoginRequest request, String clientIp) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
         try {
-            authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
-            );
-        } catch (BadCredentialsException e) {
-            throw new BadCredentialsException("Invalid email or password");
-        } catch (DisabledException e) {
-            throw new IllegalStateException("Email not verified");
-        } catch (LockedException e) {
-            throw new IllegalStateException("Account is locked");
-        } catch (Exception e) {
-            throw new IllegalStateException("Authentication failed: " + e.getMessage());
+            try {
+                loginThrottle.check(request.getEmail(), clientIp);
+            } catch (TooManyRequestsException e) {
+                outcome = "throttled";
+                throw e;
+            }
+            Authentication authentication;
+            try {
+                authentication = authenticationManager.authenticate(
+                        new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
+                );
+            } catch (UsernameNotFoundException e) {
+                // the provider already spent a dummy-hash comparison; same answer as a wrong password
+                outcome = "unknown_user";
+                throw new BadCredentialsException("Invalid email or password");
+            } catch (BadCredentialsException e) {
+                outcome = "bad_credentials";
+                loginAttempts.recordFailure(request.getEmail());
+                throw new BadCredentialsException("Invalid email or password");
+            } catch (DisabledException e) {
+                outcome = "unverified";
+                throw new IllegalStateException("Email not verified");
+            } catch (LockedException e) {
+                outcome = "locked";
+                throw new IllegalStateException("Account is locked");
+            } catch (ServiceOverloadedException e) {
+                outcome = "overloaded";
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException("Authentication failed: " + e.getMessage());
+            }
+
+            // the principal is the user the provider just loaded; no second lookup
+            User user = (User) authentication.getPrincipal();
+            loginAttempts.recordSuccess(user);
+
+            var claims = new HashMap<String, Object>();
+            claims.put("uid", user.getId().toString());
+            claims.put("email_verified", user.isEmailVerified());
+            claims.put("role", user.getRole());
+            claims.put("ver", user.getTokenVersion());
+
+            String accessToken = jwtService.buildAccessToken(user.getEmail(), claims);
+            String refreshToken = issueRefreshToken(user);
+
+            lastLoginRecorder.record(user.getId(), Instant.now().atZone(java.time.ZoneId.systemDefault()).toLocalDateTime());
+
+            outcome = "success";
+            return JwtResponse.builder()
+                    .accessToken(accessToken)
+                    .refreshToken(refreshToken)
+                    .tokenType("Bearer")
+                    .build();
+        } finally {
+            sample.stop(timer("login", outcome));
         }
-
-        User user = userRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
-
-        var claims = new HashMap<String, Object>();
-        claims.put("uid", user.getId().toString());
-        claims.put("email_verified", user.isEmailVerified());
-        claims.put("role", user.getRole());
-
-        String accessToken = jwtService.buildAccessToken(user.getEmail(), claims);
-        String refreshToken = UUID.randomUUID().toString();
-        RefreshToken rt = RefreshToken.builder()
-                .token(refreshToken)
-                .user(user)
-                .expiresAt(Instant.now().plus(refreshDays, ChronoUnit.DAYS))
-                .revoked(false)
-                .createdAt(Instant.now())
-                .build();
-        refreshTokenRepository.save(rt);
-
-        user.setLastLogin(Instant.now().atZone(java.time.ZoneId.systemDefault()).toLocalDateTime());
-        userRepository.save(user);
-
-        return JwtResponse.builder()
-                .accessToken(accessToken)
-                .refreshToken(refreshToken)
-                .tokenType("Bearer")
-                .build();
     }
 
     @Override
     @Transactional
     public JwtResponse refresh(RefreshTokenRequest request) {
-        RefreshToken refreshToken = refreshTokenRepository.findByToken(request.getRefreshToken())
-                .orElseThrow(() -> new IllegalArgumentException("Invalid refresh token"));
-
-        if (refreshToken.isRevoked() || refreshToken.getExpiresAt().isBefore(Instant.now())) {
-            throw new IllegalArgumentException("Refresh token expired or revoked");
-        }
-
-        User user = refreshToken.getUser();
-        if (!user.isEmailVerified()) {
-            throw new IllegalStateException("Email not verified");
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "invalid";
+        try {
+            RefreshTokenSecrets.Presented presented = RefreshTokenSecrets.parse(request.getRefreshToken())
+                    .orElseThrow(() -> new IllegalArgumentException("Invalid refresh token"));
+
+            // Rotation is a single conditional UPDATE: of two concurrent refreshes with the same
+            // token only one sees an affected row, so a replayed token can never be spent twice.
+            String hash = RefreshTokenSecrets.hash(presented.secret());
+            int revoked = refreshTokenRepository.revokeIfActive(presented.id(), hash, Instant.now());
+            if (revoked == 0) {
+                outcome = rejectionReason(presented.id(), hash);
+                throw new IllegalArgumentException("Refresh token expired or revoked");
+            }
+
+            User user = refreshTokenRepository.findUserByTokenId(presented.id())
+                    .orElseThrow(() -> new IllegalArgumentException("Invalid refresh token"));
+            if (!user.isEmailVerified()) {
+                outcome = "unverified";
+                throw new IllegalStateException("Email not verified");
+            }
+
+            if (!user.isAccountNonLocked()) {
+                outcome = "locked";
+                throw new IllegalStateException("Account is locked");
+            }
+
+            var claims = new HashMap<String, Object>();
+            claims.put("uid", user.getId().toString());
+            claims.put("email_verified", user.isEmailVerified());
+            claims.put("role", user.getRole());
+            claims.put("ver", user.getTokenVersion());
+
+            String newAccessToken = jwtService.buildAccessToken(user.getEmail(), claims);
+            String newRefreshToken = issueRefreshToken(user);
+
+            outcome = "success";
+            return JwtResponse.builder()
+                    .accessToken(newAccessToken)
+                    .refreshToken(newRefreshToken)
+                    .tokenType("Bearer")
+                    .build();
+        } finally {
+            sample.stop(timer("refresh", outcome));
         }
+    }
 
-        if (user.isAccountLocked()) {
-            throw new IllegalStateException("Account is locked");
+    @Override
+    @Transactional
+    public void logout(RefreshTokenRequest request, String accessToken) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "not_active";
+        try {
+            int revoked = RefreshTokenSecrets.parse(request.getRefreshToken())
+                    .map(p -> refreshTokenRepository.revokeIfActive(p.id(), RefreshTokenSecrets.hash(p.secret()), Instant.now()))
+                    .orElse(0);
+            if (accessToken != null && !accessToken.isBlank()) {
+                Claims claims;
+                try {
+                    claims = jwtService.verify(accessToken);
+                } catch (JwtException | IllegalArgumentException e) {
+                    claims = null;   // expired, forged or malformed: nothing left to revoke
+                }
+                // tokens issued before jti was added cannot be listed; they age out on their own
+                if (claims != null && claims.getId() != null) {
+                    accessTokenRevocations.revoke(claims.getId(), claims.getExpiration().toInstant());
+                }
+            }
+            if (revoked > 0) outcome = "success";
+        } finally {
+            sample.stop(timer("logout", outcome));
         }
-
-        refreshToken.setRevoked(true);
-        refreshTokenRepository.save(refreshToken);
-
-        var claims = new HashMap<String, Object>();
-        claims.put("uid", user.getId().toString());
-        claims.put("email_verified", user.isEmailVerified());
-        claims.put("role", user.getRole());
-
-        String newAccessToken = jwtService.buildAccessToken(user.getEmail(), claims);
-        String newRefreshToken = UUID.randomUUID().toString();
-        RefreshToken newRt = RefreshToken.builder()
-                .token(newRefreshToken)
-                .user(user)
-                .expiresAt(Instant.now().plus(refreshDays, ChronoUnit.DAYS))
-                .revoked(false)
-                .createdAt(Instant.now())
-                .build();
-        refreshTokenRepository.save(newRt);
-
-        return JwtResponse.builder()
-                .accessToken(newAccessToken)
-                .refreshToken(newRefreshToken)
-                .tokenType("Bearer")
-                .build();
     }
 
+    /**
+     * Ends every session of the user: all live refresh tokens are revoked in one bulk update,
+     * and the token version is bumped so outstanding access tokens fail the status check, at once
+     * here and within {@code statusCheck.ttlSeconds} on other instances. With
+     * {@code app.security.statusCheck.enabled=false} they keep working until they expire.
+     */
     @Override
     @Transactional
-    public void logout(RefreshTokenRequest request) {
-        refreshTokenRepository.findByToken(request.getRefreshToken()).ifPresent(rt -> {
-            rt.setRevoked(true);
-            refreshTokenRepository.save(rt);
-        });
+    public int revokeAllSessions(Long userId) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "not_found";
+        try {
+            String email = userRepository.findEmailById(userId)
+                    .orElseThrow(() -> new IllegalArgumentException("User not found"));
+            userRepository.incrementTokenVersion(userId);
+            int revoked = refreshTokenRepository.revokeAllByUserId(userId);
+            userCache.evict(email);
+            accountStatus.evict(userId);
+            outcome = "success";
+            return revoked;
+        } finally {
+            sample.stop(timer("revoke_all", outcome));
+        }
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<UserResponse> getAllUsers() {
-        return userRepository.findAll().stream()
+    public UserPageResponse getAllUsers(long after, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<UserView> rows = userRepository.findViewsAfter(after, Limit.of(size + 1));
+        boolean more = rows.size() > size;
+        List<UserResponse> users = rows.stream().limit(size)
                 .map(this::mapToUserResponse)
                 .collect(Collectors.toList());
+        return UserPageResponse.builder()
+                .users(users)
+                .nextAfter(more ? users.get(size - 1).getId() : null)
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllUsers(Consumer<UserResponse> sink) {
+        try (Stream<UserView> users = userRepository.streamAllViews()) {
+            users.forEach(u -> sink.accept(mapToUserResponse(u)));
+        }
     }
 
     @Override
@@ -185,25 +323,75 @@ public class AuthServiceImpl implements AuthService {
             throw new IllegalArgumentException("Either email or phoneNumber must be provided");
         }
 
-        Optional<User> userOptional;
+        Optional<UserView> userOptional;
 
         if (email != null && !email.isBlank() && phoneNumber != null && !phoneNumber.isBlank()) {
             // Fetch by both email AND phone number
-            userOptional = userRepository.findByEmailAndPhoneNumber(email, phoneNumber);
+            userOptional = userRepository.findViewByEmailAndPhoneNumber(email, phoneNumber);
         } else if (email != null && !email.isBlank()) {
             // Fetch by email only
-            userOptional = userRepository.findByEmail(email);
+            userOptional = userRepository.findViewByEmail(email);
         } else {
             // Fetch by phone number only
-            userOptional = userRepository.findByPhoneNumber(phoneNumber);
+            userOptional = userRepository.findViewByPhoneNumber(phoneNumber);
         }
 
-        User user = userOptional.orElseThrow(() ->
+        UserView user = userOptional.orElseThrow(() ->
                 new IllegalArgumentException("User not found with provided parameters"));
 
         return mapToUserResponse(user);
     }
 
+    private Timer timer(String op, String outcome) {
+        return Timer.builder("auth.service").tag("op", op).tag("outcome", outcome).register(meterRegistry);
+    }
+
+    // Only runs on the rejection path: tells a replayed (already rotated) token from an expired one
+    private String rejectionReason(Long tokenId, String hash) {
+        return refreshTokenRepository.findById(tokenId)
+                .filter(t -> t.getTokenHash().equals(hash))
+                .map(t -> t.isRevoked() ? "replay" : "expired")
+                .orElse("invalid");
+    }
+
+    private ConflictException conflictFor(DataIntegrityViolationException e) {
+        String constraint = e.getCause() instanceof ConstraintViolationException cve ? cve.getConstraintName() : null;
+        if (constraint != null && constraint.toLowerCase(Locale.ROOT).contains("email")) return new ConflictException(EMAIL_TAKEN);
+        if (constraint != null && constraint.toLowerCase(Locale.ROOT).contains("phone")) return new ConflictException(PHONE_TAKEN);
+        return new ConflictException("Email or phone number already registered");
+    }
+
+    private String issueRefreshToken(User user) {
+        String secret = RefreshTokenSecrets.newSecret();
+        RefreshToken rt = RefreshToken.builder()
+                .tokenHash(RefreshTokenSecrets.hash(secret))
+                // only the foreign key is needed; login's user is a cached snapshot that must not reach save
+                .user(userRepository.getReferenceById(user.getId()))
+                .expiresAt(Instant.now().plus(refreshDays, ChronoUnit.DAYS))
+                .revoked(false)
+                .createdAt(Instant.now())
+                .build();
+        refreshTokenRepository.save(rt);
+        return RefreshTokenSecrets.format(rt.getId(), secret);
+    }
+
+    private UserResponse mapToUserResponse(UserView user) {
+        return UserResponse.builder()
+                .id(user.id())
+                .email(user.email())
+                .firstName(user.firstName())
+                .lastName(user.lastName())
+                .phoneNumber(user.phoneNumber())
+                .dateOfBirth(user.dateOfBirth())
+                .address(user.address())
+                .role(user.role())
+                .emailVerified(user.emailVerified())
+                .accountLocked(user.lockedNow())
+                .lockedUntil(user.lockedUntil())
+                .lastLogin(user.lastLogin())
+                .build();
+    }
+
     private UserResponse mapToUserResponse(User user) {
         return UserResponse.builder()
                 .id(user.getId())
@@ -215,7 +403,8 @@ public class AuthServiceImpl implements AuthService {
                 .address(user.getAddress())
                 .role(user.getRole())
                 .emailVerified(user.isEmailVerified())
-                .accountLocked(user.isAccountLocked())
+                .accountLocked(!user.isAccountNonLocked())
+                .lockedUntil(user.getLockedUntil())
                 .lastLogin(user.getLastLogin())
                 .build();
     }
@@ -0,0 +1,12 @@
+package com.example.authservice.application.user;
+
+import com.example.authservice.web.dto.UserImportResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface UserImportService {
+    UserImportResponse importNdjson(InputStream in) throws IOException;
+
+    UserImportResponse importCsv(InputStream in) throws IOException;
+}
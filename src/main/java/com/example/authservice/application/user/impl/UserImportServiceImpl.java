@@ -0,0 +1,333 @@
+package com.example.authservice.application.user.impl;
+
+import com.example.authservice.application.user.UserImportService;
+import com.example.authservice.common.exception.ServiceOverloadedException;
+import com.example.authservice.domain.user.User;
+import com.example.authservice.domain.user.UserCache;
+import com.example.authservice.domain.user.UserRepository;
+import com.example.authservice.enums.ImportRowStatus;
+import com.example.authservice.enums.UserRoles;
+import com.example.authservice.web.dto.*;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Imports users in chunks: rows are validated, deduplicated against each other and against
+ * the database with one IN query per unique column, hashed in parallel and persisted in one
+ * transaction per chunk. Sequence-allocated ids let Hibernate send those inserts as JDBC batches.
+ * <p>
+ * Hashing goes through the shared bounded encoder, so at most {@code hashParallelism} rows are
+ * in flight (by default a quarter of the encoder's threads, leaving the rest to logins) and an
+ * overloaded encoder is retried with backoff. If it stays overloaded the import
+ * stops there: committed chunks stay, and every remaining row is reported as not processed.
+ */
+@Service
+public class UserImportServiceImpl implements UserImportService {
+    private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final PasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final TransactionTemplate tx;
+    private final ObjectReader jsonReader;
+    private final CsvMapper csvMapper;
+
+    @Value("${app.import.chunkSize:1000}")
+    private int chunkSize;
+    // 0 = a quarter of the encoder's threads; the encoder is shared with logins
+    @Value("${app.import.hashParallelism:0}")
+    private int hashParallelism;
+    @Value("${app.security.hashing.concurrency:0}")
+    private int hashingConcurrency;
+    @Value("${app.import.hashAttempts:5}")
+    private int hashAttempts;
+
+    public UserImportServiceImpl(UserRepository userRepository, UserCache userCache, PasswordEncoder passwordEncoder,
+                                 Validator validator, PlatformTransactionManager txManager,
+                                 ObjectMapper objectMapper) {
+        this.userRepository = userRepository;
+        this.userCache = userCache;
+        this.passwordEncoder = passwordEncoder;
+        this.validator = validator;
+        this.tx = new TransactionTemplate(txManager);
+        this.jsonReader = objectMapper.readerFor(RegisterRequest.class);
+        this.csvMapper = CsvMapper.builder().addModule(new JavaTimeModule()).build();
+    }
+
+    private record Row(long line, RegisterRequest request, String error) {
+    }
+
+    @Override
+    public UserImportResponse importNdjson(InputStream in) throws IOException {
+        var reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        var report = new Report();
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        String text;
+        long line = 0;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) continue;
+            try {
+                chunk.add(new Row(line, jsonReader.readValue(text), null));
+            } catch (IOException e) {
+                chunk.add(new Row(line, null, "Malformed row"));
+            }
+            if (chunk.size() >= chunkSize) {
+                process(chunk, report);
+                chunk.clear();
+            }
+        }
+        process(chunk, report);
+        return report.build();
+    }
+
+    @Override
+    public UserImportResponse importCsv(InputStream in) throws IOException {
+        CsvSchema schema = CsvSchema.emptySchema().withHeader();
+        var report = new Report();
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        try (MappingIterator<RegisterRequest> it = csvMapper.readerFor(RegisterRequest.class).with(schema).readValues(in)) {
+            long line = 1;
+            long failedAt = -1;
+            while (true) {
+                line++;
+                RegisterRequest req;
+                try {
+                    if (!it.hasNextValue()) break;
+                    req = it.nextValue();
+                } catch (JsonProcessingException e) {
+                    // a bad row is skipped; a parser that cannot get past one would fail forever
+                    long offset = it.getParser().currentLocation().getCharOffset();
+                    if (offset == failedAt) throw e;
+                    failedAt = offset;
+                    chunk.add(new Row(line, null, "Malformed row"));
+                    continue;
+                }
+                chunk.add(new Row(line, req, null));
+                if (chunk.size() >= chunkSize) {
+                    process(chunk, report);
+                    chunk.clear();
+                }
+            }
+        }
+        process(chunk, report);
+        return report.build();
+    }
+
+    private void process(List<Row> chunk, Report report) {
+        if (chunk.isEmpty()) return;
+        if (report.stopped != null) {
+            chunk.forEach(r -> report.add(r, ImportRowStatus.NOT_PROCESSED, report.stopped));
+            return;
+        }
+        List<Row> candidates = new ArrayList<>(chunk.size());
+        Set<String> emails = new HashSet<>();
+        Set<String> phones = new HashSet<>();
+        for (Row r : chunk) {
+            String error = r.error() != null ? r.error() : validate(r.request());
+            if (error != null) {
+                report.add(r, ImportRowStatus.INVALID, error);
+            } else if (emails.contains(r.request().getEmail())) {
+                report.add(r, ImportRowStatus.DUPLICATE, "Email repeated in import");
+            } else if (phones.contains(r.request().getPhoneNumber())) {
+                report.add(r, ImportRowStatus.DUPLICATE, "Phone number repeated in import");
+            } else {
+                // both keys are reserved only by a row that is kept
+                emails.add(r.request().getEmail());
+                phones.add(r.request().getPhoneNumber());
+                candidates.add(r);
+            }
+        }
+        if (candidates.isEmpty()) return;
+
+        Set<String> takenEmails = userRepository.findEmailsIn(emails);
+        Set<String> takenPhones = userRepository.findPhoneNumbersIn(phones);
+        List<Row> fresh = new ArrayList<>(candidates.size());
+        for (Row r : candidates) {
+            if (takenEmails.contains(r.request().getEmail())) {
+                report.add(r, ImportRowStatus.DUPLICATE, "Email already registered");
+            } else if (takenPhones.contains(r.request().getPhoneNumber())) {
+                report.add(r, ImportRowStatus.DUPLICATE, "Phone number already registered");
+            } else {
+                fresh.add(r);
+            }
+        }
+        if (fresh.isEmpty()) return;
+
+        List<String> hashes;
+        try {
+            hashes = hashAll(fresh);
+        } catch (ServiceOverloadedException e) {
+            report.stopped = "Not imported: password hashing is overloaded, retry this row";
+            fresh.forEach(r -> report.add(r, ImportRowStatus.NOT_PROCESSED, report.stopped));
+            return;
+        }
+        try {
+            tx.executeWithoutResult(s -> {
+                List<User> users = new ArrayList<>(fresh.size());
+                for (int i = 0; i < fresh.size(); i++) users.add(newUser(fresh.get(i).request(), hashes.get(i)));
+                userRepository.saveAllAndFlush(users);
+            });
+            fresh.forEach(r -> report.add(r, ImportRowStatus.CREATED, null));
+        } catch (DataIntegrityViolationException e) {
+            // a concurrent sign-up took one of the values; the chunk was rolled back, retry row by row
+            for (int i = 0; i < fresh.size(); i++) {
+                User user = newUser(fresh.get(i).request(), hashes.get(i));
+                try {
+                    tx.executeWithoutResult(s -> userRepository.saveAndFlush(user));
+                    report.add(fresh.get(i), ImportRowStatus.CREATED, null);
+                } catch (DataIntegrityViolationException rejected) {
+                    reportRejected(fresh.get(i), rejected, report);
+                }
+            }
+        }
+        fresh.forEach(r -> userCache.evict(r.request().getEmail()));
+    }
+
+    // same mapping as registration: only a unique-key violation is a duplicate
+    private static void reportRejected(Row r, DataIntegrityViolationException e, Report report) {
+        String constraint = e.getCause() instanceof ConstraintViolationException cve ? cve.getConstraintName() : null;
+        String name = constraint == null ? "" : constraint.toLowerCase(Locale.ROOT);
+        if (name.contains("email")) {
+            report.add(r, ImportRowStatus.DUPLICATE, "Email already registered");
+        } else if (name.contains("phone")) {
+            report.add(r, ImportRowStatus.DUPLICATE, "Phone number already registered");
+        } else {
+            report.add(r, ImportRowStatus.INVALID, "Rejected by the database");
+        }
+    }
+
+    private List<String> hashAll(List<Row> rows) {
+        int encoderThreads = hashingConcurrency > 0 ? hashingConcurrency : Runtime.getRuntime().availableProcessors();
+        Semaphore inFlight = new Semaphore(hashParallelism > 0 ? hashParallelism : Math.max(1, encoderThreads / 4));
+        AtomicBoolean overloaded = new AtomicBoolean();
+        List<Future<String>> futures = new ArrayList<>(rows.size());
+        try (ExecutorService exec = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Row r : rows) {
+                inFlight.acquireUninterruptibly();
+                if (overloaded.get()) {
+                    inFlight.release();
+                    break;
+                }
+                futures.add(exec.submit(() -> {
+                    try {
+                        return hash(r.request().getPassword());
+                    } catch (ServiceOverloadedException e) {
+                        overloaded.set(true);
+                        throw e;
+                    } finally {
+                        inFlight.release();
+                    }
+                }));
+            }
+        }
+        if (overloaded.get()) throw new ServiceOverloadedException("Password hashing overloaded", 1);
+        List<String> hashes = new ArrayList<>(rows.size());
+        for (Future<String> f : futures) {
+            try {
+                hashes.add(f.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while hashing passwords", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException re) throw re;
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        return hashes;
+    }
+
+    // the encoder sheds load when its queue is full; back off and try again before giving up
+    private String hash(String raw) {
+        long backoffMillis = 50;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return passwordEncoder.encode(raw);
+            } catch (ServiceOverloadedException e) {
+                if (attempt >= hashAttempts) throw e;
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+                backoffMillis = Math.min(backoffMillis * 2, 1000);
+            }
+        }
+    }
+
+    private String validate(RegisterRequest req) {
+        Set<ConstraintViolation<RegisterRequest>> violations = validator.validate(req);
+        if (!violations.isEmpty()) {
+            ConstraintViolation<RegisterRequest> v = violations.iterator().next();
+            return v.getPropertyPath() + ": " + v.getMessage();
+        }
+        if (req.getPhoneNumber() == null || req.getPhoneNumber().isBlank()) return "phoneNumber: Phone number is required";
+        return null;
+    }
+
+    private User newUser(RegisterRequest req, String hash) {
+        User user = new User();
+        user.setEmail(req.getEmail());
+        user.setPassword(hash);
+        user.setFirstName(req.getFirstName());
+        user.setLastName(req.getLastName());
+        user.setPhoneNumber(req.getPhoneNumber());
+        user.setDateOfBirth(req.getDateOfBirth());
+        user.setAddress(req.getAddress());
+        user.setRole(UserRoles.USER);
+        user.setEmailVerified(false);
+        user.setAccountLocked(false);
+        return user;
+    }
+
+    private static final class Report {
+        private final List<UserImportRowResult> rows = new ArrayList<>();
+        private int created;
+        private int duplicates;
+        private int invalid;
+        private int notProcessed;
+        // set once the import gives up; every later row is reported with this message
+        private String stopped;
+
+        void add(Row r, ImportRowStatus status, String message) {
+            switch (status) {
+                case CREATED -> created++;
+                case DUPLICATE -> duplicates++;
+                case INVALID -> invalid++;
+                case NOT_PROCESSED -> notProcessed++;
+            }
+            rows.add(new UserImportRowResult(r.line(), r.request() == null ? null : r.request().getEmail(), status, message));
+        }
+
+        UserImportResponse build() {
+            rows.sort(Comparator.comparingLong(UserImportRowResult::getLine));
+            return UserImportResponse.builder()
+                    .created(created)
+                    .duplicates(duplicates)
+                    .invalid(invalid)
+                    .notProcessed(notProcessed)
+                    .rows(rows)
+                    .build();
+        }
+    }
+}
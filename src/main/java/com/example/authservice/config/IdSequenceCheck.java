@@ -0,0 +1,44 @@
+package com.example.authservice.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Refuses to start when an id sequence would hand out ids that already exist. On MySQL each
+ * pooled-lo sequence is a single-row table; {@code ddl-auto: update} creates a missing one starting
+ * at 1, so a database that predates V3__id_sequences.sql must have that migration applied before
+ * this version runs. Databases with native sequences are not checked.
+ */
+@Component
+@RequiredArgsConstructor
+public class IdSequenceCheck {
+    // entity table -> the table its sequence is kept in
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "users", "users_seq",
+            "refresh_tokens", "refresh_tokens_seq");
+
+    private final JdbcTemplate jdbc;
+    // injected so the schema update has run before the check
+    private final EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void verify() {
+        boolean nativeSequences = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect().getSequenceSupport().supportsSequences();
+        if (nativeSequences) return;
+        SEQUENCES.forEach((table, sequence) -> {
+            Long maxId = jdbc.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+            Long next = jdbc.queryForObject("SELECT MAX(next_val) FROM " + sequence, Long.class);
+            if (maxId != null && (next == null || next <= maxId)) {
+                throw new IllegalStateException(sequence + " would reissue ids: next_val " + next + " <= MAX(" + table
+                        + ".id) " + maxId + ". Apply db/migration/V3__id_sequences.sql before starting this version.");
+            }
+        });
+    }
+}
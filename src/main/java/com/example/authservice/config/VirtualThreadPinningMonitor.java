@@ -0,0 +1,73 @@
+package com.example.authservice.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.*;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Streams JFR {@code jdk.VirtualThreadPinned} events while virtual threads are enabled. Each pin
+ * is recorded on {@code jvm.threads.virtual.pinned}, tagged with the frame that held the carrier:
+ * the first JDBC driver, pool, ORM, security or application frame on the stack. The first pin
+ * from each site is logged with its stack.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor {
+    private static final String EVENT = "jdk.VirtualThreadPinned";
+    private static final List<String> SITES = List.of("com.mysql.", "com.zaxxer.hikari.", "org.h2.",
+            "org.hibernate.", "org.springframework.security.", "com.example.");
+
+    private final MeterRegistry meterRegistry;
+    private final Set<String> logged = ConcurrentHashMap.newKeySet();
+    private RecordingStream stream;
+
+    @Value("${app.threads.pinning.enabled:true}")
+    private boolean enabled;
+    @Value("${app.threads.pinning.thresholdMillis:20}")
+    private long thresholdMillis;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) return;
+        stream = new RecordingStream();
+        stream.enable(EVENT).withThreshold(Duration.ofMillis(thresholdMillis)).withStackTrace();
+        stream.onEvent(EVENT, this::onPinned);
+        stream.startAsync();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) stream.close();
+    }
+
+    private void onPinned(RecordedEvent e) {
+        List<RecordedFrame> frames = e.getStackTrace() == null ? List.of() : e.getStackTrace().getFrames();
+        String site = frames.stream().map(VirtualThreadPinningMonitor::name)
+                .filter(n -> SITES.stream().anyMatch(n::startsWith))
+                .findFirst().orElse("other");
+        Timer.builder("jvm.threads.virtual.pinned").tag("site", site).register(meterRegistry).record(e.getDuration());
+        if (logged.add(site)) {
+            log.warn("Virtual thread pinned its carrier for {} ms at {}:\n\t{}", e.getDuration().toMillis(), site,
+                    frames.stream().limit(30).map(f -> name(f) + ":" + f.getLineNumber()).collect(Collectors.joining("\n\t")));
+        }
+    }
+
+    private static String name(RecordedFrame f) {
+        return f.getMethod().getType().getName() + "." + f.getMethod().getName();
+    }
+}
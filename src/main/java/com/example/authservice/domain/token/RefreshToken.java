@@ -7,7 +7,10 @@ import lombok.*;
 import java.time.Instant;
 
 @Entity
-@Table(name = "refresh_tokens")
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "idx_refresh_tokens_user_revoked", columnList = "user_id, revoked"),
+        @Index(name = "idx_refresh_tokens_expires_at", columnList = "expires_at")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -15,11 +18,13 @@ import java.time.Instant;
 @Builder
 public class RefreshToken {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "refresh_tokens_seq")
+    @SequenceGenerator(name = "refresh_tokens_seq", sequenceName = "refresh_tokens_seq", allocationSize = 50)
     private Long id;
-    @Column(unique = true, nullable = false, length = 500)
-    private String token;
-    @ManyToOne(optional = false)
+    // SHA-256 hex of the secret half of "<id>.<secret>"
+    @Column(name = "token_hash", nullable = false, length = 64)
+    private String tokenHash;
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
     private User user;
     @Column(nullable = false)
     private Instant expiresAt;
@@ -0,0 +1,104 @@
+package com.example.authservice.domain.token;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deletes expired refresh tokens in id-ordered chunks. Each chunk is a short range DELETE on
+ * the primary key, with a pause between chunks so no lock is held for long. Revoked tokens stay
+ * until they expire plus {@code graceMinutes}, so a replayed token is still told apart from an
+ * unknown one. Runs on its own thread: the pauses would otherwise hold up the shared scheduler
+ * and the flushes queued behind it.
+ */
+@Slf4j
+@Component
+public class RefreshTokenReaper {
+    private static final String NEXT_CHUNK_SQL =
+            "SELECT id FROM refresh_tokens WHERE id > ? AND expires_at < ? ORDER BY id LIMIT ?";
+    private static final String DELETE_CHUNK_SQL =
+            "DELETE FROM refresh_tokens WHERE id >= ? AND id <= ? AND expires_at < ?";
+    private static final String OLDEST_EXPIRED_SQL =
+            "SELECT MIN(expires_at) FROM refresh_tokens WHERE expires_at < ?";
+
+    private final JdbcTemplate jdbc;
+    private final Counter purged;
+    private final AtomicLong lagSeconds = new AtomicLong();
+    private ScheduledExecutorService executor;
+
+    @Value("${app.refreshTokens.purge.enabled:true}")
+    private boolean enabled;
+    @Value("${app.refreshTokens.purge.intervalMillis:600000}")
+    private long intervalMillis;
+    @Value("${app.refreshTokens.purge.batchSize:1000}")
+    private int batchSize;
+    @Value("${app.refreshTokens.purge.pauseMillis:50}")
+    private long pauseMillis;
+    @Value("${app.refreshTokens.purge.graceMinutes:60}")
+    private long graceMinutes;
+
+    public RefreshTokenReaper(JdbcTemplate jdbc, MeterRegistry registry) {
+        this.jdbc = jdbc;
+        this.purged = Counter.builder("auth.refresh_tokens.purged").register(registry);
+        registry.gauge("auth.refresh_tokens.purge.lag.seconds", lagSeconds);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) return;
+        executor = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("refresh-token-reaper").daemon().factory());
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                purge();
+            } catch (RuntimeException e) {
+                log.warn("Refresh token purge failed", e);   // a thrown task would never run again
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor != null) executor.shutdownNow();
+    }
+
+    public void purge() {
+        Timestamp cutoff = Timestamp.from(Instant.now().minus(Duration.ofMinutes(graceMinutes)));
+        long after = 0;
+        long total = 0;
+        while (true) {
+            List<Long> ids = jdbc.queryForList(NEXT_CHUNK_SQL, Long.class, after, cutoff, batchSize);
+            if (ids.isEmpty()) break;
+            long last = ids.get(ids.size() - 1);
+            int n = jdbc.update(DELETE_CHUNK_SQL, ids.get(0), last, cutoff);
+            purged.increment(n);
+            total += n;
+            after = last;
+            if (ids.size() < batchSize || !pause()) break;
+        }
+        Timestamp oldest = jdbc.queryForObject(OLDEST_EXPIRED_SQL, Timestamp.class, cutoff);
+        lagSeconds.set(oldest == null ? 0 : Duration.between(oldest.toInstant(), cutoff.toInstant()).toSeconds());
+        if (total > 0) log.info("Purged {} expired refresh tokens", total);
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(pauseMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
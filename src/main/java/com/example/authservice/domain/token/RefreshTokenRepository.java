@@ -1,11 +1,27 @@
 package com.example.authservice.domain.token;
 
+import com.example.authservice.domain.user.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.Optional;
 
 @Repository
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
-    Optional<RefreshToken> findByToken(String token);
+
+    @Modifying
+    @Query("update RefreshToken r set r.revoked = true "
+            + "where r.id = :id and r.tokenHash = :tokenHash and r.revoked = false and r.expiresAt > :now")
+    int revokeIfActive(Long id, String tokenHash, Instant now);
+
+    // served by the (user_id, revoked) index: touches only the user's live tokens
+    @Modifying
+    @Query("update RefreshToken r set r.revoked = true where r.user.id = :userId and r.revoked = false")
+    int revokeAllByUserId(Long userId);
+
+    @Query("select r.user from RefreshToken r where r.id = :id")
+    Optional<User> findUserByTokenId(Long id);
 }
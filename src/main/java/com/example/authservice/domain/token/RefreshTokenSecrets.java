@@ -0,0 +1,48 @@
+package com.example.authservice.domain.token;
+
+import java.nio.charset.StandardCharsets;
+import java.security.*;
+import java.util.*;
+
+/**
+ * Refresh tokens are handed out as {@code <id>.<secret>}: the id locates the row by primary
+ * key and only the SHA-256 digest of the secret is stored.
+ */
+public final class RefreshTokenSecrets {
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final HexFormat HEX = HexFormat.of();
+
+    private RefreshTokenSecrets() {
+    }
+
+    public record Presented(long id, String secret) {
+    }
+
+    public static String newSecret() {
+        byte[] b = new byte[32];
+        RANDOM.nextBytes(b);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(b);
+    }
+
+    public static String hash(String secret) {
+        try {
+            return HEX.formatHex(MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static String format(Long id, String secret) {
+        return id + "." + secret;
+    }
+
+    public static Optional<Presented> parse(String token) {
+        int dot = token == null ? -1 : token.indexOf('.');
+        if (dot <= 0 || dot == token.length() - 1) return Optional.empty();
+        try {
+            return Optional.of(new Presented(Long.parseLong(token.substring(0, dot)), token.substring(dot + 1)));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.authservice.domain.token;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * An access token revoked before its expiry, identified by its {@code jti}. Rows are only
+ * needed until {@code expiresAt}; after that the token fails verification on its own.
+ */
+@Entity
+@Table(name = "revoked_access_tokens", indexes = {
+        @Index(name = "idx_revoked_access_tokens_revoked_at", columnList = "revoked_at"),
+        @Index(name = "idx_revoked_access_tokens_expires_at", columnList = "expires_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevokedAccessToken {
+    @Id
+    @Column(length = 64)
+    private String jti;
+    @Column(nullable = false, name = "expires_at")
+    private Instant expiresAt;
+    @Column(nullable = false, name = "revoked_at")
+    private Instant revokedAt;
+}
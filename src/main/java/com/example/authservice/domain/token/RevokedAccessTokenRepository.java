@@ -0,0 +1,28 @@
+package com.example.authservice.domain.token;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface RevokedAccessTokenRepository extends JpaRepository<RevokedAccessToken, String> {
+
+    List<RevokedAccessToken> findByExpiresAtAfter(Instant now);
+
+    List<RevokedAccessToken> findByRevokedAtGreaterThanEqualAndExpiresAtAfter(Instant since, Instant now);
+
+    // a plain insert, not save(): an assigned id would make save() merge (SELECT then INSERT), and
+    // revoking a jti twice (a retried logout, another instance) is a no-op rather than an error
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO revoked_access_tokens (jti, expires_at, revoked_at) VALUES (:jti, :expiresAt, :revokedAt)",
+            nativeQuery = true)
+    int insertIgnore(String jti, Instant expiresAt, Instant revokedAt);
+
+    @Modifying
+    @Query("delete from RevokedAccessToken r where r.expiresAt < :now")
+    int deleteExpired(Instant now);
+}
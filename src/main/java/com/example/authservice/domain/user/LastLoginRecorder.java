@@ -0,0 +1,91 @@
+package com.example.authservice.domain.user;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Records last-login times off the request path. Events are coalesced per user in memory and
+ * written in JDBC batches on a fixed interval, or early once {@code batchSize} users are pending.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LastLoginRecorder {
+    private static final String UPDATE_SQL =
+            "UPDATE users SET last_login = ? WHERE id = ? AND (last_login IS NULL OR last_login < ?)";
+
+    private final JdbcTemplate jdbc;
+    // early flushes get their own thread: the shared task executor can be saturated by exports,
+    // and with a concurrency limit its execute() would block the login that triggered the flush
+    private final ExecutorService executor =
+            Executors.newSingleThreadExecutor(Thread.ofVirtual().name("last-login-flush").factory());
+    private final ConcurrentHashMap<Long, LocalDateTime> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean earlyFlush = new AtomicBoolean();
+    // a lock rather than a monitor: flushes run on virtual threads and block on JDBC while holding it
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    @Value("${app.lastLogin.batchSize:500}")
+    private int batchSize;
+
+    public void record(Long userId, LocalDateTime at) {
+        pending.merge(userId, at, (a, b) -> a.isAfter(b) ? a : b);
+        if (pending.size() >= batchSize && earlyFlush.compareAndSet(false, true)) {
+            CompletableFuture.runAsync(() -> {
+                try {
+                    flush();
+                } finally {
+                    earlyFlush.set(false);
+                }
+            }, executor);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.lastLogin.flushMillis:1000}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    @PreDestroy
+    public void drain() {
+        executor.shutdown();
+        flush();
+    }
+
+    void flush() {
+        flushLock.lock();
+        try {
+            flushPending();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushPending() {
+        while (!pending.isEmpty()) {
+            List<Object[]> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+            for (Long id : pending.keySet()) {
+                LocalDateTime at = pending.remove(id);
+                if (at != null) batch.add(new Object[]{Timestamp.valueOf(at), id, Timestamp.valueOf(at)});
+                if (batch.size() >= batchSize) break;
+            }
+            try {
+                jdbc.batchUpdate(UPDATE_SQL, batch);
+            } catch (RuntimeException e) {
+                log.warn("Failed to flush {} last-login updates", batch.size(), e);
+                return;
+            }
+        }
+    }
+}
@@ -18,20 +18,26 @@ import java.util.*;
 import java.util.stream.Collectors;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", uniqueConstraints = {
+        @UniqueConstraint(name = User.UK_EMAIL, columnNames = "email"),
+        @UniqueConstraint(name = User.UK_PHONE_NUMBER, columnNames = "phone_number")
+})
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class User extends Auditable implements UserDetails {
+    public static final String UK_EMAIL = "uk_users_email";
+    public static final String UK_PHONE_NUMBER = "uk_users_phone_number";
 
     // Getters and Setters
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
-    @Column(unique = true, nullable = false)
+    @Column(nullable = false)
     @NotBlank(message = "Email is required")
     @Email(message = "Email must be valid")
     private String email;
@@ -49,7 +55,7 @@ public class User extends Auditable implements UserDetails {
     @Size(max = 50, message = "Last name must not exceed 50 characters")
     private String lastName;
 
-    @Column(unique = true, nullable = false)
+    @Column(nullable = false)
     private String phoneNumber;
 
     @Column
@@ -64,6 +70,21 @@ public class User extends Auditable implements UserDetails {
     @Column
     private boolean accountLocked = false;
 
+    // Temporary lockout after repeated failed logins; ends by itself once this passes
+    @Column
+    private LocalDateTime lockedUntil;
+
+    @Column(nullable = false)
+    private int failedAttempts;
+
+    // Consecutive lockouts without a successful login; each one doubles the next cooldown
+    @Column(nullable = false)
+    private int lockoutCount;
+
+    // Bumped by revoke-all-sessions; access tokens carry it as "ver" and older ones stop verifying
+    @Column(nullable = false)
+    private int tokenVersion;
+
     @Column
     private LocalDateTime lastLogin;
 
@@ -83,6 +104,18 @@ public class User extends Auditable implements UserDetails {
     @Column(nullable = false)
     private boolean twoFactorEnabled = false;
 
+    /**
+     * Unmanaged copy for caches and principals, so no persistence context ever sees changes made
+     * to it. Read-only by convention: pass it to JPQL/JDBC updates by id, never to save or merge,
+     * and link associations through {@code UserRepository.getReferenceById(id)} instead.
+     */
+    public User snapshot() {
+        User copy = toBuilder().build();
+        copy.setCreatedAt(getCreatedAt());
+        copy.setUpdatedAt(getUpdatedAt());
+        return copy;
+    }
+
     // UserDetails implementation
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
@@ -101,7 +134,7 @@ public class User extends Auditable implements UserDetails {
 
     @Override
     public boolean isAccountNonLocked() {
-        return !accountLocked;
+        return !accountLocked && (lockedUntil == null || lockedUntil.isBefore(LocalDateTime.now()));
     }
 
     @Override
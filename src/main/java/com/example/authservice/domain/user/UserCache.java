@@ -0,0 +1,60 @@
+package com.example.authservice.domain.user;
+
+import com.github.benmanes.caffeine.cache.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.*;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Near-cache for user lookups by email. Entries live at most {@code app.cache.users.ttlSeconds},
+ * which bounds how stale lock and verify state can get; write paths call {@link #evict}.
+ * The cache holds detached snapshots, never the entity a persistence context loaded, and every
+ * caller gets its own copy, so concurrent requests share no mutable state.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserCache {
+    private final UserRepository repo;
+    private final MeterRegistry registry;
+
+    @Value("${app.cache.users.maxSize:50000}")
+    private long maxSize;
+    @Value("${app.cache.users.ttlSeconds:60}")
+    private long ttlSeconds;
+    private Cache<String, User> byEmail;
+
+    @PostConstruct
+    public void init() {
+        byEmail = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(Duration.ofSeconds(ttlSeconds)).recordStats().build();
+        CaffeineCacheMetrics.monitor(registry, byEmail, "users.byEmail");
+    }
+
+    public Optional<User> findByEmail(String email) {
+        return Optional.ofNullable(byEmail.get(email, e -> repo.findByEmail(e).map(User::snapshot).orElse(null)))
+                .map(User::snapshot);
+    }
+
+    /**
+     * Drops the entry now and again once the surrounding transaction completes, so a
+     * concurrent reader cannot re-populate it with pre-commit state.
+     */
+    public void evict(String email) {
+        if (email == null) return;
+        byEmail.invalidate(email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    byEmail.invalidate(email);
+                }
+            });
+        }
+    }
+}
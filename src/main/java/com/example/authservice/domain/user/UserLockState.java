@@ -0,0 +1,14 @@
+package com.example.authservice.domain.user;
+
+import java.time.LocalDateTime;
+
+/**
+ * The columns that decide whether a user may sign in: the administrative lock, the end of a
+ * temporary lockout, and the token version access tokens must carry.
+ */
+public record UserLockState(boolean accountLocked, LocalDateTime lockedUntil, int tokenVersion) {
+
+    public boolean lockedNow() {
+        return accountLocked || (lockedUntil != null && lockedUntil.isAfter(LocalDateTime.now()));
+    }
+}
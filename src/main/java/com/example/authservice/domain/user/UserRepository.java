@@ -1,21 +1,59 @@
 package com.example.authservice.domain.user;
 
-import jakarta.validation.constraints.Pattern;
-import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
 
 import java.util.*;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
 
-    boolean existsByEmail(String email);
+    String SELECT_VIEW = "select new com.example.authservice.domain.user.UserView(u.id, u.email, u.firstName, u.lastName, "
+            + "u.phoneNumber, u.dateOfBirth, u.address, u.role, u.emailVerified, u.accountLocked, u.lockedUntil, u.lastLogin) from User u ";
 
     Optional<User> findByEmail(String email);
 
-    Optional<User> findByPhoneNumber(String phoneNumber);
+    @Query(SELECT_VIEW + "where u.email = :email")
+    Optional<UserView> findViewByEmail(String email);
+
+    @Query(SELECT_VIEW + "where u.phoneNumber = :phoneNumber")
+    Optional<UserView> findViewByPhoneNumber(String phoneNumber);
+
+    @Query(SELECT_VIEW + "where u.email = :email and u.phoneNumber = :phoneNumber")
+    Optional<UserView> findViewByEmailAndPhoneNumber(String email, String phoneNumber);
+
+    @Query(SELECT_VIEW + "where u.email = :email or u.phoneNumber = :phoneNumber")
+    List<UserView> findViewsByEmailOrPhoneNumber(String email, String phoneNumber);
+
+    @Query(SELECT_VIEW + "where u.id > :after order by u.id")
+    List<UserView> findViewsAfter(Long after, Limit limit);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query(SELECT_VIEW + "order by u.id")
+    Stream<UserView> streamAllViews();
+
+    @Query("select u.email from User u where u.email in :emails")
+    Set<String> findEmailsIn(Collection<String> emails);
+
+    @Query("select u.phoneNumber from User u where u.phoneNumber in :phoneNumbers")
+    Set<String> findPhoneNumbersIn(Collection<String> phoneNumbers);
+
+    @Query("select new com.example.authservice.domain.user.UserLockState(u.accountLocked, u.lockedUntil, u.tokenVersion) from User u where u.id = :id")
+    Optional<UserLockState> findLockStateById(Long id);
+
+    @Query("select u.email from User u where u.id = :id")
+    Optional<String> findEmailById(Long id);
 
-    Optional<User> findByEmailAndPhoneNumber(String email, String phoneNumber);
+    @Modifying
+    @Query("update User u set u.tokenVersion = u.tokenVersion + 1 where u.id = :id")
+    int incrementTokenVersion(Long id);
 
-    boolean existsByPhoneNumber(@Pattern(regexp = "^\\+?[1-9]\\d{1,14}$", message = "Phone number must be a valid international format") String phoneNumber);
+    @Modifying
+    @Query("update User u set u.password = :password where u.email = :email")
+    int updatePasswordByEmail(String email, String password);
 }
@@ -0,0 +1,19 @@
+package com.example.authservice.domain.user;
+
+import com.example.authservice.enums.UserRoles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of the user columns exposed by the API. Queries selecting it never
+ * load the password, reset token or audit columns, and create no managed entities.
+ */
+public record UserView(Long id, String email, String firstName, String lastName, String phoneNumber,
+                       LocalDate dateOfBirth, String address, UserRoles role, boolean emailVerified,
+                       boolean accountLocked, LocalDateTime lockedUntil, LocalDateTime lastLogin) {
+
+    public boolean lockedNow() {
+        return accountLocked || (lockedUntil != null && lockedUntil.isAfter(LocalDateTime.now()));
+    }
+}
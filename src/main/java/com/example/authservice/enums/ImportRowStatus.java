@@ -0,0 +1,9 @@
+package com.example.authservice.enums;
+
+public enum ImportRowStatus {
+
+    CREATED,
+    DUPLICATE,
+    INVALID,
+    NOT_PROCESSED;
+}
@@ -0,0 +1,123 @@
+package com.example.authservice.security;
+
+import com.example.authservice.domain.token.RevokedAccessToken;
+import com.example.authservice.domain.token.RevokedAccessTokenRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Deny-list of access tokens revoked before expiry, by {@code jti}. The per-request check is a
+ * Bloom filter probe; only on a filter match is the exact set consulted, so unrevoked tokens
+ * (nearly all of them) never touch a shared map. Both are loaded from the database at startup,
+ * updated in place on local revocations and by polling for rows written by other instances,
+ * and rebuilt without the expired entries on each purge.
+ */
+@Slf4j
+@Component
+public class AccessTokenRevocations {
+    private final RevokedAccessTokenRepository repo;
+    // jti -> expiry in epoch seconds; holds unexpired revocations only
+    private final ConcurrentHashMap<String, Long> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+    private long capacity;
+    private Instant pollFrom;
+
+    @Value("${app.jwt.revocation.enabled:true}")
+    private boolean enabled;
+    @Value("${app.jwt.revocation.expectedTokens:100000}")
+    private long expectedTokens;
+    @Value("${app.jwt.revocation.falsePositiveRate:0.001}")
+    private double falsePositiveRate;
+    @Value("${app.jwt.revocation.pollMillis:5000}")
+    private long pollMillis;
+
+    public AccessTokenRevocations(RevokedAccessTokenRepository repo, MeterRegistry registry) {
+        this.repo = repo;
+        registry.gaugeMapSize("auth.jwt.revoked", List.of(), revoked);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) return;
+        Instant now = Instant.now();
+        repo.findByExpiresAtAfter(now).forEach(t -> revoked.put(t.getJti(), t.getExpiresAt().getEpochSecond()));
+        pollFrom = now;
+        rebuild();
+        log.info("Loaded {} revoked access tokens", revoked.size());
+    }
+
+    public boolean isRevoked(String jti) {
+        if (!enabled || jti == null) return false;
+        return filter.mightContain(jti) && revoked.containsKey(jti);
+    }
+
+    /**
+     * Denies the token once the surrounding transaction commits, here at once and on other
+     * instances from their next poll. Revoking an already revoked token is a no-op.
+     */
+    @Transactional
+    public void revoke(String jti, Instant expiresAt) {
+        if (!enabled || jti == null || isRevoked(jti) || !expiresAt.isAfter(Instant.now())) return;
+        repo.insertIgnore(jti, expiresAt, Instant.now());
+        long exp = expiresAt.getEpochSecond();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // the row can still roll back with the caller; only a durable revocation is denied locally
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    add(jti, exp);
+                }
+            });
+        } else {
+            add(jti, exp);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.pollMillis:5000}", initialDelayString = "${app.jwt.revocation.pollMillis:5000}")
+    public void poll() {
+        if (!enabled) return;
+        Instant now = Instant.now();
+        // re-read an overlap so rows committed late, or stamped by a slightly slow clock, are not missed
+        for (RevokedAccessToken t : repo.findByRevokedAtGreaterThanEqualAndExpiresAtAfter(pollFrom.minusMillis(2 * pollMillis), now)) {
+            if (!revoked.containsKey(t.getJti())) add(t.getJti(), t.getExpiresAt().getEpochSecond());
+        }
+        pollFrom = now;
+    }
+
+    @Transactional
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.purgeMillis:600000}", initialDelayString = "${app.jwt.revocation.purgeMillis:600000}")
+    public void purge() {
+        if (!enabled) return;
+        long now = Instant.now().getEpochSecond();
+        revoked.values().removeIf(exp -> exp <= now);
+        rebuild();
+        int n = repo.deleteExpired(Instant.now());
+        if (n > 0) log.info("Purged {} expired access-token revocations", n);
+    }
+
+    // adds and rebuilds are serialized so a rebuild never drops a concurrent add; checks stay lock-free
+    private synchronized void add(String jti, long expiresAt) {
+        revoked.put(jti, expiresAt);
+        // past its sizing the filter's false-positive rate climbs; regrow rather than wait for a purge
+        if (revoked.size() > capacity) rebuild();
+        else filter.add(jti);
+    }
+
+    private synchronized void rebuild() {
+        capacity = Math.max(expectedTokens, 2L * revoked.size());
+        BloomFilter f = new BloomFilter(capacity, falsePositiveRate);
+        revoked.keySet().forEach(f::add);
+        filter = f;
+    }
+}
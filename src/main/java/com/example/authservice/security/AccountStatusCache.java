@@ -0,0 +1,51 @@
+package com.example.authservice.security;
+
+import com.example.authservice.domain.user.UserLockState;
+import com.example.authservice.domain.user.UserRepository;
+import com.github.benmanes.caffeine.cache.*;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Revocation check for claims-backed principals, on by default. Remembers a user's lock state and
+ * token version for a bounded time, so at most one lookup per user per TTL reaches the database.
+ * Turned off, locks and revoke-all only take effect when the access token expires.
+ */
+@Component
+@RequiredArgsConstructor
+public class AccountStatusCache {
+    private final UserRepository users;
+
+    @Value("${app.security.statusCheck.enabled:true}")
+    private boolean enabled;
+    @Value("${app.security.statusCheck.maxSize:100000}")
+    private long maxSize;
+    @Value("${app.security.statusCheck.ttlSeconds:30}")
+    private long ttlSeconds;
+    private LoadingCache<Long, Optional<UserLockState>> states;
+
+    @PostConstruct
+    public void init() {
+        states = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build(users::findLockStateById);
+    }
+
+    /**
+     * True when the user exists, is not locked, and has not revoked all sessions since a token
+     * carrying {@code tokenVersion} was issued.
+     */
+    public boolean isActive(Long userId, int tokenVersion) {
+        if (!enabled) return true;
+        if (userId == null) return false;
+        return states.get(userId).map(s -> !s.lockedNow() && tokenVersion >= s.tokenVersion()).orElse(false);
+    }
+
+    public void evict(Long userId) {
+        if (userId != null) states.invalidate(userId);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.authservice.security;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+/**
+ * BCrypt encoder that asks for a rehash whenever a stored hash's cost falls outside
+ * {@code [strength, maxStrength]}, so hashes follow the configured cost both up and down.
+ */
+@Slf4j
+@Getter
+public class BandedBCryptPasswordEncoder extends BCryptPasswordEncoder {
+    private final int strength;
+    private final int maxStrength;
+
+    public BandedBCryptPasswordEncoder(int strength, int maxStrength) {
+        super(strength);
+        this.strength = strength;
+        this.maxStrength = Math.max(strength, maxStrength);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$') return false;
+        int cost;
+        try {
+            cost = Integer.parseInt(encodedPassword.substring(4, 6));
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        return cost < strength || cost > maxStrength;
+    }
+
+    /**
+     * Picks the highest cost in {@code [min, max]} whose single hash fits in {@code target}
+     * on this machine; {@code min} if even that is too slow.
+     */
+    public static int calibrate(Duration target, int min, int max) {
+        new BCryptPasswordEncoder(min).encode("calibration-warmup");
+        int chosen = min;
+        for (int s = min; s <= max; s++) {
+            long start = System.nanoTime();
+            new BCryptPasswordEncoder(s).encode("calibration-probe");
+            long took = System.nanoTime() - start;
+            if (took > target.toNanos()) break;
+            chosen = s;
+        }
+        log.info("BCrypt cost calibrated to {} for a {} ms budget", chosen, target.toMillis());
+        return chosen;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.authservice.security;
+
+import com.github.benmanes.caffeine.cache.*;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sliding-window counter per key: the previous fixed window's count, weighted by how much of
+ * it still overlaps the sliding window, plus the current window's count. Each key's state is
+ * one packed long updated by CAS, so admissions never lock. Keys live in a size-bounded cache
+ * and drop out after two idle windows, when their counts no longer matter.
+ */
+@Component
+@ConditionalOnProperty(name = "app.security.loginLimit.backend", havingValue = "memory", matchIfMissing = true)
+public class InMemorySlidingWindowLimiter implements SlidingWindowLimiter {
+    private static final int MAX_COUNT = 0xFFFF;
+
+    @Value("${app.security.loginLimit.windowSeconds:60}")
+    private long windowSeconds;
+    @Value("${app.security.loginLimit.maxKeys:100000}")
+    private long maxKeys;
+    private long windowMillis;
+    private Cache<String, Window> windows;
+
+    @PostConstruct
+    public void init() {
+        windowMillis = Duration.ofSeconds(windowSeconds).toMillis();
+        windows = Caffeine.newBuilder().maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofMillis(2 * windowMillis)).build();
+    }
+
+    @Override
+    public long tryAcquire(String key, int limit) {
+        if (limit >= MAX_COUNT) throw new IllegalArgumentException("limit must be below " + MAX_COUNT);
+        return windows.get(key, k -> new Window()).tryAcquire(System.currentTimeMillis(), windowMillis, limit);
+    }
+
+    // state layout: window index (32 bits) | previous window count (16) | current window count (16)
+    static final class Window {
+        private final AtomicLong state = new AtomicLong();
+
+        long tryAcquire(long now, long windowMillis, int limit) {
+            long index = now / windowMillis;
+            double elapsed = (double) (now % windowMillis) / windowMillis;
+            while (true) {
+                long s = state.get();
+                long seen = s >>> 32;
+                int prev = (int) (s >>> 16 & MAX_COUNT);
+                int cur = (int) (s & MAX_COUNT);
+                if (seen != index) {
+                    prev = seen == index - 1 ? cur : 0;
+                    cur = 0;
+                }
+                if (prev * (1 - elapsed) + cur + 1 > limit) {
+                    return retryAfterSeconds(prev, cur, limit, elapsed, windowMillis);
+                }
+                long next = index << 32 | (long) prev << 16 | (cur + 1);
+                if (state.compareAndSet(s, next)) return 0;
+            }
+        }
+
+        // Time until the weighted count leaves room for one more event, assuming no new events
+        private static long retryAfterSeconds(int prev, int cur, int limit, double elapsed, long windowMillis) {
+            double wait;
+            if (cur + 1 <= limit) {
+                wait = (1 - (double) (limit - cur - 1) / prev) - elapsed;
+            } else {
+                wait = (1 - elapsed) + (1 - (double) (limit - 1) / cur);
+            }
+            return Math.max(1, (long) Math.ceil(wait * windowMillis / 1000.0));
+        }
+    }
+}
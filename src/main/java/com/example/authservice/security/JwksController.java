@@ -1,27 +1,31 @@
 package com.example.authservice.security;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.http.MediaType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.math.BigInteger;
-import java.security.interfaces.RSAPublicKey;
-import java.util.*;
+import java.time.Duration;
 
 @RestController
 @RequiredArgsConstructor
 public class JwksController {
-    private final JwtService jwt;
+    private final JwtKeyRing keys;
 
-    @GetMapping(path = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
-    public Map<String, Object> jwks() {
-        RSAPublicKey p = jwt.getPublicKey();
-        return Map.of("keys", new Object[]{Map.of("kty", "RSA", "use", "sig", "kid", jwt.getKid(), "alg", "RS256", "n", b64(p.getModulus()), "e", b64(p.getPublicExponent()))});
-    }
+    // JwtKeyRing publishes new keys at least this long before they sign
+    @Value("${app.jwt.jwksMaxAgeSeconds:300}")
+    private long maxAgeSeconds;
 
-    private String b64(BigInteger i) {
-        byte[] b = i.toByteArray();
-        if (b.length > 1 && b[0] == 0) b = java.util.Arrays.copyOfRange(b, 1, b.length);
-        return Base64.getUrlEncoder().withoutPadding().encodeToString(b);
+    // The document is serialized once per key change; clients revalidate with If-None-Match
+    // (checkNotModified does the RFC 9110 weak comparison against every tag in the list)
+    @GetMapping(path = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> jwks(WebRequest request) {
+        String etag = keys.etag();
+        CacheControl cache = CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds)).cachePublic();
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cache).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(cache).body(keys.jwks());
     }
 }
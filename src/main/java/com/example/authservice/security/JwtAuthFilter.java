@@ -1,9 +1,11 @@
 package com.example.authservice.security;
 
-import com.example.authservice.domain.user.UserRepository;
+import com.example.authservice.domain.user.UserCache;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.*;
 import jakarta.servlet.http.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -19,7 +21,13 @@ import java.io.IOException;
 public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtService jwt;
-    private final UserRepository users;
+    private final UserCache users;
+    private final AccountStatusCache accountStatus;
+    private final AccessTokenRevocations revocations;
+
+    // "claims" builds the principal from the verified token, "db" loads the user on every request
+    @Value("${app.security.principal:claims}")
+    private String principalMode;
 
     @Override
     protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain fc) throws ServletException, IOException {
@@ -30,17 +38,21 @@ public class JwtAuthFilter extends OncePerRequestFilter {
             return;
         }
         String token = h.substring(7);
-        String username;
+        Claims claims;
         try {
-            username = jwt.extractUsername(token);
+            claims = jwt.verify(token);
         } catch (Exception e) {
             fc.doFilter(req, res);
             return;
         }
+        if (revocations.isRevoked(claims.getId())) {
+            fc.doFilter(req, res);
+            return;
+        }
+        String username = claims.getSubject();
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            var uOpt = users.findByEmail(username);
-            if (uOpt.isPresent() && jwt.isTokenValid(token)) {
-                UserDetails u = uOpt.get();
+            UserDetails u = "db".equals(principalMode) ? fromDb(username, claims) : fromClaims(claims);
+            if (u != null) {
                 var auth = new UsernamePasswordAuthenticationToken(u, null, u.getAuthorities());
                 auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(req));
                 SecurityContextHolder.getContext().setAuthentication(auth);
@@ -48,4 +60,20 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         }
         fc.doFilter(req, res);
     }
+
+    private UserDetails fromClaims(Claims claims) {
+        JwtPrincipal p;
+        try {
+            p = JwtPrincipal.from(claims);
+        } catch (RuntimeException e) {
+            return null;
+        }
+        return accountStatus.isActive(p.id(), p.tokenVersion()) ? p : null;
+    }
+
+    // tokens issued before the user's last revoke-all carry an older version
+    private UserDetails fromDb(String username, Claims claims) {
+        Integer ver = claims.get("ver", Integer.class);
+        return users.findByEmail(username).filter(u -> (ver == null ? 0 : ver) >= u.getTokenVersion()).orElse(null);
+    }
 }
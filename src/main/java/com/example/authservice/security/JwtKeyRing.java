@@ -0,0 +1,371 @@
+package com.example.authservice.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.*;
+import java.security.interfaces.*;
+import java.security.spec.*;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Signing keys for access tokens: one active key plus the keys still accepted for verification.
+ * Keys come from the configured PEM pair, from {@code app.jwt.keyDir} (polled for changes), or
+ * are generated and rotated every {@code app.jwt.rotation.intervalMinutes}. The JWKS document
+ * is serialized once per change and served as-is.
+ * <p>
+ * A key is published in the JWKS for {@code publishAheadSeconds} (at least the JWKS cache
+ * lifetime) before it signs, so resource servers with a cached copy already know it; a key
+ * that stops signing stays published until every token it signed has expired.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class JwtKeyRing {
+    private final ObjectMapper objectMapper;
+
+    // RS256, ES256 or EdDSA (Ed25519); used for generated keys, loaded keys carry their own
+    @Value("${app.jwt.algorithm:RS256}")
+    private String algorithm;
+    @Value("${app.jwt.privatePem:}")
+    private String privatePem;
+    @Value("${app.jwt.publicPem:}")
+    private String publicPem;
+    // holds <name>.pub.pem files, plus <name>.key.pem for keys that may sign; newest signing key is active
+    @Value("${app.jwt.keyDir:}")
+    private String keyDir;
+    @Value("${app.jwt.rotation.intervalMinutes:0}")
+    private long rotationMinutes;
+    @Value("${app.jwt.rotation.publishAheadSeconds:600}")
+    private long publishAheadSeconds;
+    @Value("${app.jwt.jwksMaxAgeSeconds:300}")
+    private long jwksMaxAgeSeconds;
+    @Value("${app.jwt.accessMinutes:15}")
+    private long accessMinutes;
+
+    public record SigningKey(String kid, String alg, PrivateKey privateKey, PublicKey publicKey, Instant createdAt) {
+    }
+
+    private record State(SigningKey active, Map<String, SigningKey> byKid, byte[] jwks, String etag) {
+    }
+
+    private final List<Runnable> removalListeners = new CopyOnWriteArrayList<>();
+    // kid -> when it stopped signing; it is dropped once the tokens it signed have all expired
+    private final Map<String, Instant> retiredAt = new HashMap<>();
+    // not synchronized: the scheduled refresh does file I/O on a virtual thread, which a monitor would pin
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile State state;
+    private String dirFingerprint = "";
+
+    @PostConstruct
+    public void init() throws Exception {
+        if (!keyDir.isBlank()) {
+            reloadDir();
+        } else if (!privatePem.isBlank() && !publicPem.isBlank()) {
+            install(List.of(key(readPrivate(privatePem), readPublic(publicPem), Instant.EPOCH)));
+        } else {
+            install(List.of(generate()));
+            log.warn("Ephemeral {} keypair generated for JWT. Provide APP_JWT_PRIVATE_PEM/APP_JWT_PUBLIC_PEM or APP_JWT_KEY_DIR for production.", algorithm);
+        }
+    }
+
+    public SigningKey active() {
+        return state.active();
+    }
+
+    public SigningKey find(String kid) {
+        return kid == null ? null : state.byKid().get(kid);
+    }
+
+    public byte[] jwks() {
+        return state.jwks();
+    }
+
+    public String etag() {
+        return state.etag();
+    }
+
+    /**
+     * Runs {@code listener} whenever a key stops being accepted, so anything caching
+     * verification results can drop them.
+     */
+    public void onKeysRemoved(Runnable listener) {
+        removalListeners.add(listener);
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.keyDirPollMillis:30000}", initialDelayString = "${app.jwt.keyDirPollMillis:30000}")
+    public void refresh() throws Exception {
+        if (!keyDir.isBlank()) {
+            reloadDir();
+        } else if (rotationMinutes > 0 && privatePem.isBlank()) {
+            rotate();
+        }
+    }
+
+    /**
+     * Publishes a new key every rotation interval, promotes it once it has been published for
+     * the lead time, and drops retired keys whose tokens have all expired.
+     */
+    void rotate() throws GeneralSecurityException {
+        lock.lock();
+        try {
+            rotateLocked();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void rotateLocked() throws GeneralSecurityException {
+        Instant now = Instant.now();
+        List<SigningKey> keys = new ArrayList<>(state.byKid().values());
+        SigningKey newest = keys.stream().max(Comparator.comparing(SigningKey::createdAt)).orElseThrow();
+        if (!newest.createdAt().plus(Duration.ofMinutes(rotationMinutes)).isAfter(now)) {
+            SigningKey next = generate();
+            keys.add(next);
+            log.info("Published next JWT signing key {}, signing from {}", next.kid(), now.plus(publishAhead()));
+        }
+        Duration retention = Duration.ofMinutes(accessMinutes + 1);   // plus a minute of clock skew
+        keys.removeIf(k -> {
+            Instant retired = retiredAt.get(k.kid());
+            return retired != null && retired.plus(retention).isBefore(now);
+        });
+        if (keys.size() != state.byKid().size() || selectActive(keys, now) != active()) install(keys);
+    }
+
+    private Duration publishAhead() {
+        return Duration.ofSeconds(Math.max(publishAheadSeconds, jwksMaxAgeSeconds));
+    }
+
+    // The newest key published for the whole lead time signs. A fresh ring has none, so its
+    // oldest signing key does: nobody can hold a cached JWKS from before this ring existed.
+    private SigningKey selectActive(Collection<SigningKey> keys, Instant now) {
+        Instant publishedBy = now.minus(publishAhead());
+        List<SigningKey> signers = keys.stream().filter(k -> k.privateKey() != null).toList();
+        return signers.stream().filter(k -> !k.createdAt().isAfter(publishedBy))
+                .max(Comparator.comparing(SigningKey::createdAt))
+                .orElseGet(() -> signers.stream().min(Comparator.comparing(SigningKey::createdAt)).orElseThrow());
+    }
+
+    private void reloadDir() throws Exception {
+        lock.lock();
+        try {
+            reloadDirLocked();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void reloadDirLocked() throws Exception {
+        Path dir = Path.of(keyDir);
+        List<Path> pubs;
+        try (Stream<Path> files = Files.list(dir)) {
+            pubs = files.filter(p -> p.getFileName().toString().endsWith(".pub.pem")).sorted().toList();
+        }
+        StringBuilder fp = new StringBuilder();
+        for (Path p : pubs) {
+            Path priv = privateFor(p);
+            fp.append(p).append(Files.getLastModifiedTime(p)).append(Files.exists(priv) ? Files.getLastModifiedTime(priv) : "-");
+        }
+        if (fp.toString().equals(dirFingerprint)) {
+            // a newly added key takes over once it has been published for the lead time
+            if (selectActive(state.byKid().values(), Instant.now()) != active()) install(List.copyOf(state.byKid().values()));
+            return;
+        }
+
+        List<SigningKey> keys = new ArrayList<>();
+        for (Path p : pubs) {
+            Path priv = privateFor(p);
+            PrivateKey pk = Files.exists(priv) ? readPrivate(Files.readString(priv)) : null;
+            keys.add(key(pk, readPublic(Files.readString(p)), Files.getLastModifiedTime(p).toInstant()));
+        }
+        if (keys.stream().noneMatch(k -> k.privateKey() != null)) {
+            throw new IllegalStateException("No signing key (*.key.pem) found in " + dir);
+        }
+        install(keys);
+        dirFingerprint = fp.toString();
+        log.info("Loaded {} JWT keys from {}, active kid {}", keys.size(), dir, active().kid());
+    }
+
+    private Path privateFor(Path pub) {
+        String name = pub.getFileName().toString();
+        return pub.resolveSibling(name.substring(0, name.length() - ".pub.pem".length()) + ".key.pem");
+    }
+
+    private void install(List<SigningKey> keys) {
+        Instant now = Instant.now();
+        SigningKey active = selectActive(keys, now);
+        Map<String, SigningKey> byKid = new HashMap<>();
+        List<Map<String, Object>> jwks = new ArrayList<>();
+        for (SigningKey k : keys) {
+            if (byKid.putIfAbsent(k.kid(), k) == null) jwks.add(jwk(k));
+        }
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(Map.of("keys", jwks));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        State previous = state;
+        state = new State(active, Map.copyOf(byKid), json, "\"" + sha256(json) + "\"");
+        retiredAt.keySet().retainAll(byKid.keySet());
+        if (previous != null && !previous.active().kid().equals(active.kid())) {
+            retiredAt.putIfAbsent(previous.active().kid(), now);
+            retiredAt.remove(active.kid());
+            log.info("JWT signing key {} is now active", active.kid());
+        }
+        if (previous != null && !byKid.keySet().containsAll(previous.byKid().keySet())) {
+            removalListeners.forEach(Runnable::run);
+        }
+    }
+
+    private Map<String, Object> jwk(SigningKey k) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("use", "sig");
+        m.put("kid", k.kid());
+        m.put("alg", k.alg());
+        m.putAll(publicParams(k.publicKey()));
+        return m;
+    }
+
+    // Required public members of the JWK, in the lexicographic order RFC 7638 thumbprints use
+    private static Map<String, String> publicParams(PublicKey pub) {
+        Map<String, String> m = new LinkedHashMap<>();
+        if (pub instanceof RSAPublicKey p) {
+            m.put("e", b64(p.getPublicExponent()));
+            m.put("kty", "RSA");
+            m.put("n", b64(p.getModulus()));
+        } else if (pub instanceof ECPublicKey p) {
+            if (!isP256(p.getParams())) {
+                throw new IllegalArgumentException("EC JWT keys must use P-256");
+            }
+            m.put("crv", "P-256");
+            m.put("kty", "EC");
+            m.put("x", b64(p.getW().getAffineX(), 32));
+            m.put("y", b64(p.getW().getAffineY(), 32));
+        } else if (pub instanceof EdECPublicKey p) {
+            byte[] spki = p.getEncoded();
+            m.put("crv", "Ed25519");
+            m.put("kty", "OKP");
+            m.put("x", Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOfRange(spki, spki.length - 32, spki.length)));
+        } else {
+            throw new IllegalArgumentException("Unsupported JWT key type " + pub.getAlgorithm());
+        }
+        return m;
+    }
+
+    private static final ECParameterSpec P256 = p256();
+
+    private static ECParameterSpec p256() {
+        try {
+            AlgorithmParameters params = AlgorithmParameters.getInstance("EC");
+            params.init(new ECGenParameterSpec("secp256r1"));
+            return params.getParameterSpec(ECParameterSpec.class);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // the whole domain, not just the field size: secp256k1 is also a 256-bit curve
+    private static boolean isP256(ECParameterSpec spec) {
+        return spec.getCurve().equals(P256.getCurve()) && spec.getGenerator().equals(P256.getGenerator())
+                && spec.getOrder().equals(P256.getOrder()) && spec.getCofactor() == P256.getCofactor();
+    }
+
+    private static String algFor(PublicKey pub) {
+        if (pub instanceof RSAPublicKey) return "RS256";
+        if (pub instanceof ECPublicKey) return "ES256";
+        return "EdDSA";
+    }
+
+    private SigningKey generate() throws GeneralSecurityException {
+        KeyPairGenerator kpg;
+        switch (algorithm) {
+            case "ES256" -> {
+                kpg = KeyPairGenerator.getInstance("EC");
+                kpg.initialize(new ECGenParameterSpec("secp256r1"));
+            }
+            case "EdDSA" -> kpg = KeyPairGenerator.getInstance("Ed25519");
+            case "RS256" -> {
+                kpg = KeyPairGenerator.getInstance("RSA");
+                kpg.initialize(2048);
+            }
+            default -> throw new IllegalArgumentException("Unsupported app.jwt.algorithm " + algorithm);
+        }
+        var kp = kpg.generateKeyPair();
+        return key(kp.getPrivate(), kp.getPublic(), Instant.now());
+    }
+
+    // kid is the RFC 7638 thumbprint, so every instance loading the same key agrees on it
+    private SigningKey key(PrivateKey priv, PublicKey pub, Instant createdAt) {
+        StringJoiner canonical = new StringJoiner(",", "{", "}");
+        publicParams(pub).forEach((k, v) -> canonical.add("\"" + k + "\":\"" + v + "\""));
+        return new SigningKey(sha256(canonical.toString().getBytes(StandardCharsets.UTF_8)), algFor(pub), priv, pub, createdAt);
+    }
+
+    private static String sha256(byte[] b) {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(MessageDigest.getInstance("SHA-256").digest(b));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String b64(BigInteger i) {
+        byte[] b = i.toByteArray();
+        if (b.length > 1 && b[0] == 0) b = Arrays.copyOfRange(b, 1, b.length);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(b);
+    }
+
+    private static String b64(BigInteger i, int length) {
+        byte[] b = i.toByteArray();
+        byte[] fixed = new byte[length];
+        int n = Math.min(b.length, length);
+        System.arraycopy(b, b.length - n, fixed, length - n, n);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(fixed);
+    }
+
+    private static final List<String> KEY_TYPES = List.of("RSA", "EC", "Ed25519");
+
+    private PrivateKey readPrivate(String pem) throws GeneralSecurityException {
+        byte[] der = decode(pem);
+        for (String type : KEY_TYPES) {
+            try {
+                return KeyFactory.getInstance(type).generatePrivate(new PKCS8EncodedKeySpec(der));
+            } catch (InvalidKeySpecException ignored) {
+                // try the next key type
+            }
+        }
+        throw new InvalidKeySpecException("Unsupported private key; expected PKCS#8 RSA, EC or Ed25519");
+    }
+
+    private PublicKey readPublic(String pem) throws GeneralSecurityException {
+        byte[] der = decode(pem);
+        for (String type : KEY_TYPES) {
+            try {
+                return KeyFactory.getInstance(type).generatePublic(new X509EncodedKeySpec(der));
+            } catch (InvalidKeySpecException ignored) {
+                // try the next key type
+            }
+        }
+        throw new InvalidKeySpecException("Unsupported public key; expected X.509 RSA, EC or Ed25519");
+    }
+
+    private byte[] decode(String pem) {
+        String n = pem.replaceAll("-----BEGIN (.*)-----", "").replaceAll("-----END (.*)-----", "").replaceAll("\\s", "");
+        return Base64.getDecoder().decode(n);
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.authservice.security;
+
+import com.example.authservice.enums.UserRoles;
+import io.jsonwebtoken.Claims;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.*;
+
+/**
+ * Principal built straight from verified access-token claims, so authenticated requests
+ * need no user lookup.
+ */
+public record JwtPrincipal(Long id, String email, UserRoles role, boolean emailVerified, int tokenVersion) implements UserDetails {
+
+    public static JwtPrincipal from(Claims c) {
+        String uid = c.get("uid", String.class);
+        String role = c.get("role", String.class);
+        Boolean verified = c.get("email_verified", Boolean.class);
+        Integer ver = c.get("ver", Integer.class);
+        return new JwtPrincipal(uid == null ? null : Long.valueOf(uid), c.getSubject(),
+                role == null ? UserRoles.USER : UserRoles.valueOf(role), Boolean.TRUE.equals(verified),
+                ver == null ? 0 : ver);
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+}
@@ -1,84 +1,144 @@
 package com.example.authservice.security;
 
+import com.github.benmanes.caffeine.cache.*;
 import io.jsonwebtoken.*;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
-import lombok.Getter;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.security.*;
-import java.security.interfaces.*;
-import java.security.spec.*;
 import java.time.*;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 @Service
+@RequiredArgsConstructor
 public class JwtService {
+    private final JwtKeyRing keyRing;
+    private final MeterRegistry meterRegistry;
+
     @Value("${app.jwt.iss}")
     private String issuer;
     @Value("${app.jwt.aud}")
     private String audience;
     @Value("${app.jwt.accessMinutes:15}")
     private long accessMinutes;
-    @Value("${app.jwt.privatePem:}")
-    private String privatePem;
-    @Value("${app.jwt.publicPem:}")
-    private String publicPem;
-    private RSAPrivateKey privateKey;
-    @Getter
-    private RSAPublicKey publicKey;
-    @Getter
-    private String kid;
+    @Value("${app.jwt.verifiedCacheSize:10000}")
+    private long verifiedCacheSize;
+    private JwtParser parser;
+    private Cache<String, Claims> verified;
+    private Timer signTime;
+    private Timer verifyCached;
+    private Timer verifySuccess;
+    private Timer verifyExpired;
+    private Timer verifyInvalid;
 
     @PostConstruct
-    public void init() throws Exception {
-        if (privatePem != null && !privatePem.isBlank() && publicPem != null && !publicPem.isBlank()) {
-            privateKey = (RSAPrivateKey) readPrivate(privatePem);
-            publicKey = (RSAPublicKey) readPublic(publicPem);
-        } else {
-            var kpg = KeyPairGenerator.getInstance("RSA");
-            kpg.initialize(2048);
-            var kp = kpg.generateKeyPair();
-            privateKey = (RSAPrivateKey) kp.getPrivate();
-            publicKey = (RSAPublicKey) kp.getPublic();
-            System.out.println("[WARN] Ephemeral RSA keypair generated for JWT. Provide APP_JWT_PRIVATE_PEM/APP_JWT_PUBLIC_PEM for production.");
-        }
-        kid = java.util.UUID.randomUUID().toString();
+    public void init() {
+        signTime = Timer.builder("auth.jwt.sign").register(meterRegistry);
+        verifyCached = verifyTimer("cached");
+        verifySuccess = verifyTimer("success");
+        verifyExpired = verifyTimer("expired");
+        verifyInvalid = verifyTimer("invalid");
+        parser = Jwts.parser().requireIssuer(issuer).requireAudience(audience).keyLocator(header -> {
+            JwtKeyRing.SigningKey k = header instanceof ProtectedHeader ph ? keyRing.find(ph.getKeyId()) : null;
+            if (k == null) throw new JwtException("Unknown signing key");
+            return k.publicKey();
+        }).build();
+        if (verifiedCacheSize <= 0) return;   // 0 disables the verified-token cache
+        verified = Caffeine.newBuilder().maximumSize(verifiedCacheSize).expireAfter(new Expiry<String, Claims>() {
+            public long expireAfterCreate(String k, Claims c, long now) {
+                return Math.max(0, Duration.between(Instant.now(), c.getExpiration().toInstant()).toNanos());
+            }
+
+            public long expireAfterUpdate(String k, Claims c, long now, long current) {
+                return current;
+            }
+
+            public long expireAfterRead(String k, Claims c, long now, long current) {
+                return current;
+            }
+        }).build();
+        // tokens signed by a retired key must stop verifying immediately
+        keyRing.onKeysRemoved(verified::invalidateAll);
     }
 
     public String buildAccessToken(String sub, java.util.Map<String, Object> claims) {
+        long start = System.nanoTime();
         Instant now = Instant.now();
-        return Jwts.builder().setHeaderParam("kid", kid).setIssuer(issuer).setAudience(audience).setSubject(sub).setIssuedAt(Date.from(now)).setExpiration(Date.from(now.plus(accessMinutes, ChronoUnit.MINUTES))).addClaims(claims).signWith(privateKey, SignatureAlgorithm.RS256).compact();
+        JwtKeyRing.SigningKey key = keyRing.active();
+        String token = Jwts.builder().header().keyId(key.kid()).and().issuer(issuer).audience().single(audience).subject(sub).id(UUID.randomUUID().toString()).issuedAt(Date.from(now)).expiration(Date.from(now.plus(accessMinutes, ChronoUnit.MINUTES))).claims(claims).signWith(key.privateKey(), signer(key.alg())).compact();
+        signTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return token;
+    }
+
+    /**
+     * Verifies the token once and returns its claims. Tokens seen before are served from a
+     * cache keyed by their SHA-256 digest until their own expiry, skipping the signature check.
+     */
+    public Claims verify(String token) {
+        long start = System.nanoTime();
+        String key = null;
+        if (verified != null) {
+            key = digest(token);
+            Claims c = verified.getIfPresent(key);
+            if (c != null && c.getExpiration().toInstant().isAfter(Instant.now())) {
+                verifyCached.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return c;
+            }
+        }
+        Claims c;
+        try {
+            c = parser.parseSignedClaims(token).getPayload();
+        } catch (ExpiredJwtException e) {
+            verifyExpired.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        } catch (RuntimeException e) {
+            verifyInvalid.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+        if (key != null) verified.put(key, c);
+        verifySuccess.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return c;
     }
 
     public String extractUsername(String token) {
-        return parser().parseClaimsJws(token).getBody().getSubject();
+        return verify(token).getSubject();
     }
 
     public boolean isTokenValid(String token) {
         try {
-            parser().parseClaimsJws(token);
+            verify(token);
             return true;
         } catch (Exception e) {
             return false;
         }
     }
 
-    private JwtParser parser() {
-        return Jwts.parserBuilder().requireIssuer(issuer).requireAudience(audience).setSigningKey(publicKey).build();
+    private Timer verifyTimer(String outcome) {
+        return Timer.builder("auth.jwt.verify").tag("outcome", outcome).register(meterRegistry);
     }
 
-    private PrivateKey readPrivate(String pem) throws Exception {
-        String n = pem.replaceAll("-----BEGIN (.*)-----", "").replaceAll("-----END (.*)-----", "").replaceAll("\s", "");
-        byte[] b = Base64.getDecoder().decode(n);
-        return KeyFactory.getInstance("RSA").generatePrivate(new PKCS8EncodedKeySpec(b));
+    private static SignatureAlgorithm signer(String alg) {
+        return switch (alg) {
+            case "ES256" -> Jwts.SIG.ES256;
+            case "EdDSA" -> Jwts.SIG.EdDSA;
+            default -> Jwts.SIG.RS256;
+        };
     }
 
-    private PublicKey readPublic(String pem) throws Exception {
-        String n = pem.replaceAll("-----BEGIN (.*)-----", "").replaceAll("-----END (.*)-----", "").replaceAll("\s", "");
-        byte[] b = Base64.getDecoder().decode(n);
-        return KeyFactory.getInstance("RSA").generatePublic(new X509EncodedKeySpec(b));
+    private String digest(String token) {
+        try {
+            byte[] d = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().withoutPadding().encodeToString(d);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
-
 }
@@ -0,0 +1,225 @@
+package com.example.authservice.security;
+
+import com.example.authservice.domain.user.User;
+import com.example.authservice.domain.user.UserCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Failed-login counting with progressive lockout. After {@code maxFailures} consecutive
+ * failures an account is locked until {@code baseMinutes * 2^(lockouts - 1)} (capped at
+ * {@code maxMinutes}) has passed, then unlocks by itself; a successful login resets both
+ * counters. With {@code maxLockouts > 0} the lock after that many lockouts is permanent
+ * ({@code accountLocked}) and needs an administrator.
+ * <p>
+ * Running counts live in memory and are written in coalesced JDBC batches, so an attack on one
+ * account costs one row write per flush rather than one per attempt. Lock transitions are rare
+ * and written at once, with the user caches evicted, so the next attempt is refused before any
+ * password check.
+ */
+@Slf4j
+@Component
+public class LoginAttemptTracker {
+    private static final String UPDATE_COUNTS_SQL =
+            "UPDATE users SET failed_attempts = ?, lockout_count = ? WHERE id = ?";
+    private static final String LOCK_SQL =
+            "UPDATE users SET failed_attempts = 0, lockout_count = ?, locked_until = ?, account_locked = account_locked OR ? WHERE id = ?";
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate ownTransaction;
+    private final UserCache userCache;
+    private final AccountStatusCache accountStatus;
+    private final Counter lockouts;
+    private final ConcurrentHashMap<Long, Attempts> states = new ConcurrentHashMap<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    // a lock rather than a monitor: flushes run on virtual threads and block on JDBC while holding it
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    @Value("${app.security.lockout.enabled:true}")
+    private boolean enabled;
+    @Value("${app.security.lockout.maxFailures:5}")
+    private int maxFailures;
+    @Value("${app.security.lockout.baseMinutes:1}")
+    private long baseMinutes;
+    @Value("${app.security.lockout.maxMinutes:60}")
+    private long maxMinutes;
+    @Value("${app.security.lockout.maxLockouts:0}")
+    private int maxLockouts;
+    @Value("${app.security.lockout.idleMinutes:30}")
+    private long idleMinutes;
+
+    public LoginAttemptTracker(JdbcTemplate jdbc, PlatformTransactionManager txManager, UserCache userCache,
+                               AccountStatusCache accountStatus, MeterRegistry registry) {
+        this.jdbc = jdbc;
+        // the caller's login transaction rolls back on the failure that triggers the lock
+        this.ownTransaction = new TransactionTemplate(txManager);
+        this.ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.userCache = userCache;
+        this.accountStatus = accountStatus;
+        this.lockouts = Counter.builder("auth.login.lockouts").register(registry);
+        registry.gaugeMapSize("auth.login.attempts.tracked", List.of(), states);
+    }
+
+    private static final class Attempts {
+        final String email;
+        int failures;
+        int lockouts;
+        long lastSeen = System.currentTimeMillis();
+        // bumped on every change; a write clears the dirty mark only if nothing changed since it read
+        long version;
+        // set by flush() when it drops this state; a caller still holding it must look up a new one
+        boolean forgotten;
+
+        Attempts(String email, int failures, int lockouts) {
+            this.email = email;
+            this.failures = failures;
+            this.lockouts = lockouts;
+        }
+    }
+
+    /**
+     * Counts a wrong password for {@code email}; unknown emails are ignored.
+     */
+    public void recordFailure(String email) {
+        if (!enabled) return;
+        User user = userCache.findByEmail(email).orElse(null);
+        if (user == null) return;
+        Attempts a;
+        int lockoutNumber;
+        long version;
+        while (true) {
+            a = states.computeIfAbsent(user.getId(), id -> new Attempts(user.getEmail(), user.getFailedAttempts(), user.getLockoutCount()));
+            synchronized (a) {
+                if (a.forgotten) continue;
+                a.lastSeen = System.currentTimeMillis();
+                a.version++;
+                if (++a.failures < maxFailures) {
+                    dirty.add(user.getId());
+                    return;
+                }
+                a.failures = 0;
+                lockoutNumber = ++a.lockouts;
+                version = a.version;
+                break;
+            }
+        }
+        lock(user.getId(), a, version, lockoutNumber);
+    }
+
+    public void recordSuccess(User user) {
+        if (!enabled) return;
+        // the common case: nothing to reset and nothing written
+        if (user.getFailedAttempts() == 0 && user.getLockoutCount() == 0 && !states.containsKey(user.getId())) return;
+        while (true) {
+            Attempts a = states.computeIfAbsent(user.getId(), id -> new Attempts(user.getEmail(), 0, 0));
+            synchronized (a) {
+                if (a.forgotten) continue;
+                a.failures = 0;
+                a.lockouts = 0;
+                a.lastSeen = System.currentTimeMillis();
+                a.version++;
+                dirty.add(user.getId());
+                return;
+            }
+        }
+    }
+
+    private void lock(Long userId, Attempts a, long version, int lockoutNumber) {
+        boolean permanent = maxLockouts > 0 && lockoutNumber >= maxLockouts;
+        long minutes = Math.min(maxMinutes, baseMinutes << Math.min(lockoutNumber - 1, 20));
+        LocalDateTime until = LocalDateTime.now().plusMinutes(minutes);
+        ownTransaction.executeWithoutResult(s -> jdbc.update(LOCK_SQL, lockoutNumber, Timestamp.valueOf(until), permanent, userId));
+        // the lock row also carries the counts; a failure recorded meanwhile still needs its own write
+        markClean(userId, a, version);
+        userCache.evict(a.email);
+        accountStatus.evict(userId);
+        lockouts.increment();
+        log.info("Locked user {} {} after {} failed logins (lockout #{})", userId,
+                permanent ? "permanently" : "for " + minutes + " min", maxFailures, lockoutNumber);
+    }
+
+    @Scheduled(fixedDelayString = "${app.security.lockout.flushMillis:1000}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    @PreDestroy
+    public void drain() {
+        flush();
+    }
+
+    // under the state's lock, where recorders bump the version and mark it dirty
+    private void markClean(Long id, Attempts a, long version) {
+        synchronized (a) {
+            if (a.version == version) dirty.remove(id);
+        }
+    }
+
+    void flush() {
+        flushLock.lock();
+        try {
+            flushDirty();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushDirty() {
+        if (!dirty.isEmpty()) {
+            List<Object[]> batch = new ArrayList<>();
+            List<Attempts> written = new ArrayList<>();
+            List<Long> versions = new ArrayList<>();
+            for (Long id : dirty) {
+                Attempts a = states.get(id);
+                if (a == null) {
+                    dirty.remove(id);
+                    continue;
+                }
+                synchronized (a) {
+                    batch.add(new Object[]{a.failures, a.lockouts, id});
+                    versions.add(a.version);
+                }
+                written.add(a);
+            }
+            try {
+                jdbc.batchUpdate(UPDATE_COUNTS_SQL, batch);
+            } catch (RuntimeException e) {
+                // the ids stay dirty, so the next flush retries them
+                log.warn("Failed to flush {} login-attempt counters", batch.size(), e);
+                return;
+            }
+            for (int i = 0; i < written.size(); i++) {
+                Attempts a = written.get(i);
+                markClean((Long) batch.get(i)[2], a, versions.get(i));
+                userCache.evict(a.email);
+            }
+        }
+        // forget users with nothing left to count; their row now says the same. Decided under the
+        // state's lock, where recorders mark it dirty, so a failure counted meanwhile is never dropped
+        long idleBefore = System.currentTimeMillis() - idleMinutes * 60_000;
+        for (Long id : states.keySet()) {
+            states.computeIfPresent(id, (k, a) -> {
+                synchronized (a) {
+                    if (dirty.contains(k) || !(a.lastSeen < idleBefore || (a.failures == 0 && a.lockouts == 0))) return a;
+                    a.forgotten = true;
+                    return null;
+                }
+            });
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.authservice.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.*;
 import org.springframework.security.authentication.*;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -8,31 +10,60 @@ import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.time.Duration;
+import java.util.Map;
+
 @Configuration
 @EnableMethodSecurity
 @RequiredArgsConstructor
 public class SecurityConfig {
     private final JwtAuthFilter jwtAuthFilter;
     private final UserDetailsService uds;
+    private final UserDetailsPasswordService passwordUpgrades;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.security.hashing.concurrency:0}")
+    private int hashingConcurrency;
+    @Value("${app.security.hashing.queueDepth:64}")
+    private int hashingQueueDepth;
+    @Value("${app.security.hashing.retryAfterSeconds:1}")
+    private long hashingRetryAfterSeconds;
+    @Value("${app.security.hashing.strength:10}")
+    private int hashingStrength;
+    @Value("${app.security.hashing.maxStrength:14}")
+    private int hashingMaxStrength;
+    // 0 keeps the fixed strength; otherwise the cost is calibrated at startup to this budget
+    @Value("${app.security.hashing.targetMillis:0}")
+    private long hashingTargetMillis;
 
     @Bean
     public SecurityFilterChain chain(HttpSecurity http) throws Exception {
         http.csrf(csrf -> csrf.disable()).cors(Customizer.withDefaults())
                 .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
-                .authorizeHttpRequests(a -> a.requestMatchers("/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html", "/.well-known/jwks.json", "/api/v1/auth/**").permitAll().anyRequest().authenticated())
+                // actuator paths are only mapped on management.server.port, which stays off the public ingress
+                .authorizeHttpRequests(a -> a.requestMatchers("/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html", "/.well-known/jwks.json", "/actuator/health", "/actuator/prometheus", "/api/v1/auth/**").permitAll().anyRequest().authenticated())
                 .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
         return http.build();
     }
 
-    @Bean
+    @Bean(destroyMethod = "shutdown")
     public PasswordEncoder encoder() {
-        return new BCryptPasswordEncoder();
+        int concurrency = hashingConcurrency > 0 ? hashingConcurrency : Runtime.getRuntime().availableProcessors();
+        int strength = hashingTargetMillis > 0
+                ? BandedBCryptPasswordEncoder.calibrate(Duration.ofMillis(hashingTargetMillis), hashingStrength, hashingMaxStrength)
+                : hashingStrength;
+        var bcrypt = new BandedBCryptPasswordEncoder(strength, hashingMaxStrength);
+        var delegating = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        // hashes stored before the {bcrypt} prefix was introduced are plain BCrypt
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+        return new BoundedPasswordEncoder(delegating, concurrency, hashingQueueDepth, hashingRetryAfterSeconds, meterRegistry);
     }
 
     @Bean
@@ -40,6 +71,10 @@ public class SecurityConfig {
         var p = new DaoAuthenticationProvider();
         p.setUserDetailsService(uds);
         p.setPasswordEncoder(encoder());
+        p.setUserDetailsPasswordService(passwordUpgrades);
+        // unknown emails still cost one comparison against the provider's dummy hash, but reach
+        // the caller as UsernameNotFoundException so failure tracking skips its user lookup
+        p.setHideUserNotFoundExceptions(false);
         return new ProviderManager(p);
     }
 }
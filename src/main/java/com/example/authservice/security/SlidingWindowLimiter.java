@@ -0,0 +1,16 @@
+package com.example.authservice.security;
+
+/**
+ * Counts events per key over a sliding window. {@link InMemorySlidingWindowLimiter} is the
+ * local backend; a shared store can be plugged in by providing another implementation and
+ * setting {@code app.security.loginLimit.backend}.
+ */
+public interface SlidingWindowLimiter {
+
+    /**
+     * Records one event for {@code key} if that keeps it within {@code limit} per window.
+     *
+     * @return 0 when the event was admitted, otherwise the seconds until it would be
+     */
+    long tryAcquire(String key, int limit);
+}
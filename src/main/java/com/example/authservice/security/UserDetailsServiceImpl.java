@@ -1,17 +1,39 @@
 package com.example.authservice.security;
 
+import com.example.authservice.domain.user.User;
+import com.example.authservice.domain.user.UserCache;
 import com.example.authservice.domain.user.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.*;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
+    private final UserCache users;
     private final UserRepository repo;
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        return repo.findByEmail(username).orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        return users.findByEmail(username).orElseThrow(() -> new UsernameNotFoundException("User not found"));
+    }
+
+    /**
+     * Called by the authentication provider after a successful login whose stored hash
+     * needs upgrading. Only the password column is written; the caller gets a copy carrying the
+     * new hash, since changing the given user could flush a stale full-row UPDATE if it is managed.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        repo.updatePasswordByEmail(user.getUsername(), newPassword);
+        users.evict(user.getUsername());
+        if (user instanceof User u) {
+            User upgraded = u.snapshot();
+            upgraded.setPassword(newPassword);
+            return upgraded;
+        }
+        return org.springframework.security.core.userdetails.User.withUserDetails(user).password(newPassword).build();
     }
 }
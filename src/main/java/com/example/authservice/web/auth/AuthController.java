@@ -1,22 +1,35 @@
 package com.example.authservice.web.auth;
 
 import com.example.authservice.application.auth.AuthService;
+import com.example.authservice.application.user.UserImportService;
 import com.example.authservice.util.BaseResponse;
 import com.example.authservice.web.dto.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 
 @RestController
 @RequestMapping("/api/v1/auth")
 @RequiredArgsConstructor
 public class AuthController {
+    private static final String NDJSON = "application/x-ndjson";
+
     private final AuthService authService;
+    private final UserImportService userImportService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping("/register")
     public ResponseEntity<BaseResponse<UserResponse>> register(@RequestBody @Valid RegisterRequest request) {
@@ -27,8 +40,8 @@ public class AuthController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<BaseResponse<JwtResponse>> login(@RequestBody @Valid LoginRequest request) {
-        JwtResponse response = authService.login(request);
+    public ResponseEntity<BaseResponse<JwtResponse>> login(@RequestBody @Valid LoginRequest request, HttpServletRequest http) {
+        JwtResponse response = authService.login(request, http.getRemoteAddr());
         return ResponseEntity.ok(BaseResponse.success("Login successful", response));
     }
 
@@ -39,18 +52,58 @@ public class AuthController {
     }
 
     @PostMapping("/logout")
-    public ResponseEntity<BaseResponse<String>> logout(@RequestBody @Valid RefreshTokenRequest request) {
-        authService.logout(request);
+    public ResponseEntity<BaseResponse<String>> logout(@RequestBody @Valid RefreshTokenRequest request,
+                                                       @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        // the access token presented alongside is revoked too, so it stops working before it expires
+        String accessToken = authorization != null && authorization.startsWith("Bearer ") ? authorization.substring(7) : null;
+        authService.logout(request, accessToken);
         return ResponseEntity.ok(BaseResponse.success("Logged out successfully", "Logged out successfully"));
     }
 
-    @GetMapping("/users")
+    @GetMapping(value = "/users", produces = MediaType.APPLICATION_JSON_VALUE)
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<BaseResponse<List<UserResponse>>> getAllUsers() {
-        List<UserResponse> users = authService.getAllUsers();
+    public ResponseEntity<BaseResponse<UserPageResponse>> getAllUsers(
+            @RequestParam(value = "after", defaultValue = "0") long after,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        UserPageResponse users = authService.getAllUsers(after, limit);
         return ResponseEntity.ok(BaseResponse.success("Users fetched successfully", users));
     }
 
+    // One JSON object per line, written as rows are read, so memory use does not grow with the table.
+    // The body is written asynchronously and must finish within spring.mvc.async.request-timeout (30m).
+    @GetMapping(value = "/users", produces = NDJSON)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        ObjectWriter writer = objectMapper.writerFor(UserResponse.class);
+        StreamingResponseBody body = out -> {
+            var buffered = new BufferedOutputStream(out, 64 * 1024);
+            try {
+                authService.streamAllUsers(u -> {
+                    try {
+                        buffered.write(writer.writeValueAsBytes(u));
+                        buffered.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            buffered.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
+    // Rows are read from the request body as they arrive, one RegisterRequest per NDJSON line or CSV record
+    @PostMapping(value = "/users/import", consumes = {NDJSON, "text/csv"})
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BaseResponse<UserImportResponse>> importUsers(HttpServletRequest request) throws IOException {
+        UserImportResponse report = MediaType.parseMediaType(request.getContentType()).isCompatibleWith(MediaType.parseMediaType(NDJSON))
+                ? userImportService.importNdjson(request.getInputStream())
+                : userImportService.importCsv(request.getInputStream());
+        return ResponseEntity.ok(BaseResponse.success("Users imported", report));
+    }
+
     @GetMapping("/users/search")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<BaseResponse<UserResponse>> getUserByFilter(
@@ -60,4 +113,12 @@ public class AuthController {
         return ResponseEntity.ok(BaseResponse.success("User fetched successfully", user));
     }
 
+    // Signs the user out everywhere; returns how many refresh tokens were revoked
+    @DeleteMapping("/users/{id}/sessions")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BaseResponse<Integer>> revokeAllSessions(@PathVariable("id") Long id) {
+        int revoked = authService.revokeAllSessions(id);
+        return ResponseEntity.ok(BaseResponse.success("Sessions revoked", revoked));
+    }
+
 }
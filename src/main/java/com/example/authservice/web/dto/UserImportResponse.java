@@ -0,0 +1,18 @@
+package com.example.authservice.web.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+public class UserImportResponse {
+    private int created;
+    private int duplicates;
+    private int invalid;
+    private int notProcessed;
+    private List<UserImportRowResult> rows;
+}
@@ -0,0 +1,16 @@
+package com.example.authservice.web.dto;
+
+import com.example.authservice.enums.ImportRowStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class UserImportRowResult {
+    private long line;
+    private String email;
+    private ImportRowStatus status;
+    private String message;
+}
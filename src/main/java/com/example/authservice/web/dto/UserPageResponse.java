@@ -0,0 +1,16 @@
+package com.example.authservice.web.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+public class UserPageResponse {
+    private List<UserResponse> users;
+    // pass as "after" to fetch the next page; null on the last page
+    private Long nextAfter;
+}
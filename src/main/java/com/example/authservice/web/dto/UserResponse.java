@@ -23,5 +23,6 @@ public class UserResponse {
     private UserRoles role;
     private boolean emailVerified;
     private boolean accountLocked;
+    private LocalDateTime lockedUntil;
     private LocalDateTime lastLogin;
 }
@@ -0,0 +1,11 @@
+-- Refresh tokens are now issued as "<id>.<secret>" and looked up by primary key;
+-- only the SHA-256 hex digest of the secret is stored.
+-- Raw UUID tokens issued before this change cannot be re-expressed in the new format,
+-- so they are revoked and their holders log in again.
+ALTER TABLE refresh_tokens ADD COLUMN token_hash CHAR(64) NULL;
+UPDATE refresh_tokens SET token_hash = SHA2(token, 256), revoked = TRUE;
+ALTER TABLE refresh_tokens MODIFY token_hash CHAR(64) NOT NULL;
+ALTER TABLE refresh_tokens DROP COLUMN token;
+
+CREATE INDEX idx_refresh_tokens_user_id ON refresh_tokens (user_id);
+CREATE INDEX idx_refresh_tokens_expires_at ON refresh_tokens (expires_at);
@@ -0,0 +1,8 @@
+-- User and RefreshToken ids come from pooled-lo sequences (allocationSize 50) instead of
+-- AUTO_INCREMENT, so inserts can be deferred and batched. MySQL has no sequences; Hibernate
+-- keeps each one in a single-row table holding the low value of the next block.
+CREATE TABLE IF NOT EXISTS users_seq (next_val BIGINT NOT NULL);
+INSERT INTO users_seq (next_val) SELECT COALESCE(MAX(id), 0) + 1 FROM users;
+
+CREATE TABLE IF NOT EXISTS refresh_tokens_seq (next_val BIGINT NOT NULL);
+INSERT INTO refresh_tokens_seq (next_val) SELECT COALESCE(MAX(id), 0) + 1 FROM refresh_tokens;
@@ -0,0 +1,6 @@
+-- Failed-login tracking. failed_attempts and lockout_count are written in coalesced batches;
+-- locked_until is set when a lockout starts and simply lapses, so unlocking needs no write.
+ALTER TABLE users
+    ADD COLUMN failed_attempts INT NOT NULL DEFAULT 0,
+    ADD COLUMN lockout_count INT NOT NULL DEFAULT 0,
+    ADD COLUMN locked_until DATETIME NULL;
@@ -0,0 +1,10 @@
+-- Access tokens revoked before expiry (logout), keyed by their jti claim. Each instance loads
+-- the unexpired rows at startup and polls revoked_at for rows written by other instances.
+CREATE TABLE IF NOT EXISTS revoked_access_tokens (
+    jti VARCHAR(64) NOT NULL PRIMARY KEY,
+    expires_at DATETIME(6) NOT NULL,
+    revoked_at DATETIME(6) NOT NULL
+);
+
+CREATE INDEX idx_revoked_access_tokens_revoked_at ON revoked_access_tokens (revoked_at);
+CREATE INDEX idx_revoked_access_tokens_expires_at ON revoked_access_tokens (expires_at);
@@ -0,0 +1,8 @@
+-- Revoke-all-sessions updates every live refresh token of one user; the composite index
+-- finds exactly those rows. It also serves the user_id foreign key, so the single-column
+-- index it replaces is dropped once it exists.
+CREATE INDEX idx_refresh_tokens_user_revoked ON refresh_tokens (user_id, revoked);
+DROP INDEX idx_refresh_tokens_user_id ON refresh_tokens;
+
+-- Access tokens carry this as their "ver" claim; bumping it invalidates every token issued before.
+ALTER TABLE users ADD COLUMN token_version INT NOT NULL DEFAULT 0;
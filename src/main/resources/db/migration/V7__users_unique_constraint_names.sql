@@ -0,0 +1,49 @@
+-- conflictFor() tells an email clash from a phone clash by constraint name, and ddl-auto only
+-- recognises a unique constraint by its name. Older databases carry the V1 index "email" and a
+-- Hibernate-generated "UK..." index on phone_number, so each column's single-column unique
+-- index is renamed to the name the entity declares (or dropped if a copy with that name was
+-- already added), and created if the column has none.
+
+-- email
+SET @old = (SELECT s.index_name FROM information_schema.statistics s
+            WHERE s.table_schema = DATABASE() AND s.table_name = 'users' AND s.non_unique = 0
+              AND s.index_name NOT IN ('PRIMARY', 'uk_users_email')
+            GROUP BY s.index_name HAVING COUNT(*) = 1 AND MAX(s.column_name) = 'email' LIMIT 1);
+SET @has = (SELECT COUNT(*) FROM information_schema.statistics
+            WHERE table_schema = DATABASE() AND table_name = 'users' AND index_name = 'uk_users_email');
+SET @sql = CASE
+    WHEN @old IS NULL THEN 'SELECT 1'
+    WHEN @has > 0 THEN CONCAT('DROP INDEX `', @old, '` ON users')
+    ELSE CONCAT('ALTER TABLE users RENAME INDEX `', @old, '` TO uk_users_email') END;
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @has = (SELECT COUNT(*) FROM information_schema.statistics
+            WHERE table_schema = DATABASE() AND table_name = 'users' AND index_name = 'uk_users_email');
+SET @sql = IF(@has = 0, 'CREATE UNIQUE INDEX uk_users_email ON users (email)', 'SELECT 1');
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- phone_number
+SET @old = (SELECT s.index_name FROM information_schema.statistics s
+            WHERE s.table_schema = DATABASE() AND s.table_name = 'users' AND s.non_unique = 0
+              AND s.index_name NOT IN ('PRIMARY', 'uk_users_phone_number')
+            GROUP BY s.index_name HAVING COUNT(*) = 1 AND MAX(s.column_name) = 'phone_number' LIMIT 1);
+SET @has = (SELECT COUNT(*) FROM information_schema.statistics
+            WHERE table_schema = DATABASE() AND table_name = 'users' AND index_name = 'uk_users_phone_number');
+SET @sql = CASE
+    WHEN @old IS NULL THEN 'SELECT 1'
+    WHEN @has > 0 THEN CONCAT('DROP INDEX `', @old, '` ON users')
+    ELSE CONCAT('ALTER TABLE users RENAME INDEX `', @old, '` TO uk_users_phone_number') END;
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @has = (SELECT COUNT(*) FROM information_schema.statistics
+            WHERE table_schema = DATABASE() AND table_name = 'users' AND index_name = 'uk_users_phone_number');
+SET @sql = IF(@has = 0, 'CREATE UNIQUE INDEX uk_users_phone_number ON users (phone_number)', 'SELECT 1');
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
@@ -0,0 +1,130 @@
+package com.example.authservice.application.auth.impl;
+
+import com.example.authservice.domain.token.RefreshToken;
+import com.example.authservice.domain.token.RefreshTokenRepository;
+import com.example.authservice.domain.token.RefreshTokenSecrets;
+import com.example.authservice.domain.user.LastLoginRecorder;
+import com.example.authservice.domain.user.User;
+import com.example.authservice.domain.user.UserCache;
+import com.example.authservice.domain.user.UserRepository;
+import com.example.authservice.security.*;
+import com.example.authservice.web.dto.JwtResponse;
+import com.example.authservice.web.dto.RefreshTokenRequest;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AuthServiceImplRefreshTest {
+    private static final long TOKEN_ID = 41L;
+    private static final String SECRET = RefreshTokenSecrets.newSecret();
+    private static final String HASH = RefreshTokenSecrets.hash(SECRET);
+
+    private final RefreshTokenRepository tokens = mock(RefreshTokenRepository.class);
+    private final UserRepository users = mock(UserRepository.class);
+    private final JwtService jwtService = mock(JwtService.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final User user = User.builder().id(7L).email("u@example.com").emailVerified(true).build();
+    private final User userReference = User.builder().id(7L).build();
+    private AuthServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        service = new AuthServiceImpl(users, mock(PasswordEncoder.class), mock(AuthenticationManager.class),
+                jwtService, tokens, mock(UserCache.class), mock(LastLoginRecorder.class), registry,
+                mock(LoginThrottle.class), mock(LoginAttemptTracker.class), mock(AccessTokenRevocations.class),
+                mock(AccountStatusCache.class));
+        ReflectionTestUtils.setField(service, "refreshDays", 7L);
+        when(jwtService.buildAccessToken(anyString(), anyMap())).thenReturn("access");
+        when(users.getReferenceById(7L)).thenReturn(userReference);
+        when(tokens.save(any(RefreshToken.class))).thenAnswer(inv -> {
+            RefreshToken t = inv.getArgument(0);
+            t.setId(TOKEN_ID + 1);
+            return t;
+        });
+    }
+
+    @Test
+    void rotationRevokesThePresentedTokenAndIssuesANewOne() {
+        when(tokens.revokeIfActive(eq(TOKEN_ID), eq(HASH), any())).thenReturn(1);
+        when(tokens.findUserByTokenId(TOKEN_ID)).thenReturn(Optional.of(user));
+
+        JwtResponse response = service.refresh(request(RefreshTokenSecrets.format(TOKEN_ID, SECRET)));
+
+        assertThat(response.getAccessToken()).isEqualTo("access");
+        var issued = RefreshTokenSecrets.parse(response.getRefreshToken()).orElseThrow();
+        assertThat(issued.id()).isEqualTo(TOKEN_ID + 1);
+        assertThat(issued.secret()).isNotEqualTo(SECRET);
+        verify(tokens).save(argThat(t -> t.getTokenHash().equals(RefreshTokenSecrets.hash(issued.secret()))
+                && !t.isRevoked() && t.getUser() == userReference && t.getExpiresAt().isAfter(Instant.now())));
+        assertThat(outcomeCount("success")).isEqualTo(1);
+    }
+
+    @Test
+    void replayOfARotatedTokenIsRejectedAndReported() {
+        when(tokens.revokeIfActive(eq(TOKEN_ID), eq(HASH), any())).thenReturn(0);
+        when(tokens.findById(TOKEN_ID)).thenReturn(Optional.of(stored(true, Instant.now().plusSeconds(3600))));
+
+        assertThatThrownBy(() -> service.refresh(request(RefreshTokenSecrets.format(TOKEN_ID, SECRET))))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        verify(tokens, never()).save(any());
+        verify(jwtService, never()).buildAccessToken(anyString(), anyMap());
+        assertThat(outcomeCount("replay")).isEqualTo(1);
+    }
+
+    @Test
+    void expiredTokenIsToldApartFromAReplay() {
+        when(tokens.revokeIfActive(eq(TOKEN_ID), eq(HASH), any())).thenReturn(0);
+        when(tokens.findById(TOKEN_ID)).thenReturn(Optional.of(stored(false, Instant.now().minusSeconds(1))));
+
+        assertThatThrownBy(() -> service.refresh(request(RefreshTokenSecrets.format(TOKEN_ID, SECRET))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(outcomeCount("expired")).isEqualTo(1);
+    }
+
+    @Test
+    void wrongSecretForAnExistingIdIsInvalid() {
+        String other = RefreshTokenSecrets.newSecret();
+        when(tokens.revokeIfActive(eq(TOKEN_ID), anyString(), any())).thenReturn(0);
+        when(tokens.findById(TOKEN_ID)).thenReturn(Optional.of(stored(true, Instant.now().plusSeconds(3600))));
+
+        assertThatThrownBy(() -> service.refresh(request(RefreshTokenSecrets.format(TOKEN_ID, other))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(outcomeCount("invalid")).isEqualTo(1);
+    }
+
+    @Test
+    void malformedTokenNeverReachesTheDatabase() {
+        assertThatThrownBy(() -> service.refresh(request("not-a-token")))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(tokens);
+        assertThat(outcomeCount("invalid")).isEqualTo(1);
+    }
+
+    private static RefreshTokenRequest request(String token) {
+        RefreshTokenRequest r = new RefreshTokenRequest();
+        r.setRefreshToken(token);
+        return r;
+    }
+
+    private static RefreshToken stored(boolean revoked, Instant expiresAt) {
+        return RefreshToken.builder().id(TOKEN_ID).tokenHash(HASH).revoked(revoked).expiresAt(expiresAt).createdAt(Instant.now()).build();
+    }
+
+    private long outcomeCount(String outcome) {
+        Timer t = registry.find("auth.service").tag("op", "refresh").tag("outcome", outcome).timer();
+        return t == null ? 0 : t.count();
+    }
+}
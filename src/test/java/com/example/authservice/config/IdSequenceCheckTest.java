@@ -0,0 +1,50 @@
+package com.example.authservice.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class IdSequenceCheckTest {
+    private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+    private final SessionFactoryImplementor sessionFactory = mock(SessionFactoryImplementor.class, RETURNS_DEEP_STUBS);
+    private final EntityManagerFactory emf = mock(EntityManagerFactory.class);
+    private final IdSequenceCheck check = new IdSequenceCheck(jdbc, emf);
+
+    @BeforeEach
+    void setUp() {
+        when(emf.unwrap(SessionFactoryImplementor.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getJdbcServices().getDialect().getSequenceSupport().supportsSequences()).thenReturn(false);
+        sequence("users", 101L, 151L);
+        sequence("refresh_tokens", null, 1L);
+    }
+
+    @Test
+    void passesWhenEverySequenceIsAheadOfItsTable() {
+        assertThatCode(check::verify).doesNotThrowAnyException();
+    }
+
+    @Test
+    void failsWhenASequenceWasCreatedFreshOverExistingRows() {
+        sequence("refresh_tokens", 500L, 1L);
+        assertThatThrownBy(check::verify).isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("refresh_tokens_seq").hasMessageContaining("V3__id_sequences.sql");
+    }
+
+    @Test
+    void skipsDatabasesWithNativeSequences() {
+        when(sessionFactory.getJdbcServices().getDialect().getSequenceSupport().supportsSequences()).thenReturn(true);
+        check.verify();
+        verifyNoInteractions(jdbc);
+    }
+
+    private void sequence(String table, Long maxId, Long nextVal) {
+        when(jdbc.queryForObject("SELECT MAX(id) FROM " + table, Long.class)).thenReturn(maxId);
+        when(jdbc.queryForObject("SELECT MAX(next_val) FROM " + table + "_seq", Long.class)).thenReturn(nextVal);
+    }
+}
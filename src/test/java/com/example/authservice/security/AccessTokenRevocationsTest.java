@@ -0,0 +1,102 @@
+package com.example.authservice.security;
+
+import com.example.authservice.domain.token.RevokedAccessToken;
+import com.example.authservice.domain.token.RevokedAccessTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class AccessTokenRevocationsTest {
+    private final RevokedAccessTokenRepository repo = mock(RevokedAccessTokenRepository.class);
+    private AccessTokenRevocations revocations;
+
+    @BeforeEach
+    void setUp() {
+        revocations = new AccessTokenRevocations(repo, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(revocations, "enabled", true);
+        ReflectionTestUtils.setField(revocations, "expectedTokens", 100L);
+        ReflectionTestUtils.setField(revocations, "falsePositiveRate", 0.01);
+        ReflectionTestUtils.setField(revocations, "pollMillis", 5000L);
+        Instant later = Instant.now().plusSeconds(600);
+        when(repo.findByExpiresAtAfter(any())).thenReturn(List.of(new RevokedAccessToken("loaded", later, Instant.now())));
+        revocations.init();
+    }
+
+    @Test
+    void revokedTokensStayRevokedAcrossGrowthRebuilds() {
+        Instant later = Instant.now().plusSeconds(600);
+        // 20x the sizing forces several rebuilds while adding
+        var jtis = IntStream.range(0, 2_000).mapToObj(i -> "jti-" + i).toList();
+        jtis.forEach(j -> revocations.revoke(j, later));
+        assertThat(jtis).allMatch(revocations::isRevoked);
+        assertThat(revocations.isRevoked("loaded")).isTrue();
+        verify(repo, times(2_000)).insertIgnore(anyString(), any(), any());
+    }
+
+    @Test
+    void purgeRebuildKeepsUnexpiredAndDropsExpired() {
+        Instant later = Instant.now().plusSeconds(600);
+        var jtis = IntStream.range(0, 500).mapToObj(i -> "jti-" + i).toList();
+        jtis.forEach(j -> revocations.revoke(j, later));
+        // an entry whose token has since expired; revoke() refuses past expiries, so place it directly
+        Map<String, Long> revoked = revokedMap();
+        revoked.put("expired", Instant.now().minusSeconds(1).getEpochSecond());
+
+        revocations.purge();
+
+        assertThat(jtis).allMatch(revocations::isRevoked);
+        assertThat(revocations.isRevoked("loaded")).isTrue();
+        assertThat(revocations.isRevoked("expired")).isFalse();
+        assertThat(revoked).doesNotContainKey("expired");
+    }
+
+    @Test
+    void pollAddsRowsWrittenByOtherInstances() {
+        Instant later = Instant.now().plusSeconds(600);
+        when(repo.findByRevokedAtGreaterThanEqualAndExpiresAtAfter(any(), any()))
+                .thenReturn(List.of(new RevokedAccessToken("remote", later, Instant.now())));
+        assertThat(revocations.isRevoked("remote")).isFalse();
+        revocations.poll();
+        assertThat(revocations.isRevoked("remote")).isTrue();
+    }
+
+    @Test
+    void deniesInsideATransactionOnlyOnceItCommits() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            revocations.revoke("pending", Instant.now().plusSeconds(600));
+            assertThat(revocations.isRevoked("pending")).isFalse();
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertThat(revocations.isRevoked("pending")).isTrue();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void ignoresTokensWithoutJtiOrAlreadyExpired() {
+        revocations.revoke(null, Instant.now().plusSeconds(600));
+        revocations.revoke("stale", Instant.now().minusSeconds(1));
+        assertThat(revocations.isRevoked(null)).isFalse();
+        assertThat(revocations.isRevoked("stale")).isFalse();
+        verify(repo, never()).insertIgnore(any(), any(), any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Long> revokedMap() {
+        return (Map<String, Long>) ReflectionTestUtils.getField(revocations, "revoked");
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.authservice.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+
+    @Test
+    void neverMissesAnAddedKey() {
+        var filter = new BloomFilter(10_000, 0.001);
+        var keys = IntStream.range(0, 10_000).mapToObj(i -> UUID.randomUUID().toString()).toList();
+        keys.forEach(filter::add);
+        assertThat(keys).allMatch(filter::mightContain);
+    }
+
+    @Test
+    void staysNearTheConfiguredFalsePositiveRateAtCapacity() {
+        var filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) filter.add("added-" + i);
+        long falsePositives = IntStream.range(0, 100_000).filter(i -> filter.mightContain("absent-" + i)).count();
+        assertThat(falsePositives).isLessThan(2_000);   // 1% expected; allow twice that
+    }
+
+    @Test
+    void overfilledFilterStillHasNoFalseNegatives() {
+        var filter = new BloomFilter(100, 0.01);
+        var keys = IntStream.range(0, 5_000).mapToObj(i -> "jti-" + i).toList();
+        keys.forEach(filter::add);
+        assertThat(keys).allMatch(filter::mightContain);
+    }
+}
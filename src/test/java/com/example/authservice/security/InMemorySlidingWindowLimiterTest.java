@@ -0,0 +1,93 @@
+package com.example.authservice.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemorySlidingWindowLimiterTest {
+    private static final long WINDOW = 60_000;
+    // the start of a window at a realistic epoch-millis time, so the packed index uses its upper bits
+    private static final long T0 = 1_790_000_000_000L / WINDOW * WINDOW;
+
+    @Test
+    void admitsUpToTheLimitWithinOneWindow() {
+        var w = new InMemorySlidingWindowLimiter.Window();
+        for (int i = 0; i < 5; i++) assertThat(w.tryAcquire(T0 + i, WINDOW, 5)).isZero();
+        assertThat(w.tryAcquire(T0 + 10, WINDOW, 5)).isPositive();
+    }
+
+    @Test
+    void countsUpToTheSixteenBitFieldWithoutSpillingIntoThePreviousCount() {
+        var w = new InMemorySlidingWindowLimiter.Window();
+        int limit = 0xFFFE;
+        for (int i = 0; i < limit; i++) assertThat(w.tryAcquire(T0, WINDOW, limit)).isZero();
+        assertThat(w.tryAcquire(T0, WINDOW, limit)).isPositive();
+        // two windows on, nothing carries over: a spilled count would show up as a previous window
+        for (int i = 0; i < limit; i++) assertThat(w.tryAcquire(T0 + 2 * WINDOW, WINDOW, limit)).isZero();
+    }
+
+    @Test
+    void weighsThePreviousWindowByItsRemainingOverlap() {
+        var w = new InMemorySlidingWindowLimiter.Window();
+        for (int i = 0; i < 10; i++) w.tryAcquire(T0, WINDOW, 10);
+        // halfway through the next window the previous 10 count as 5, leaving room for 5 more
+        long mid = T0 + WINDOW + WINDOW / 2;
+        int admitted = 0;
+        while (w.tryAcquire(mid, WINDOW, 10) == 0) admitted++;
+        assertThat(admitted).isEqualTo(5);
+    }
+
+    @Test
+    void forgetsCountsOlderThanThePreviousWindow() {
+        var w = new InMemorySlidingWindowLimiter.Window();
+        for (int i = 0; i < 10; i++) w.tryAcquire(T0, WINDOW, 10);
+        assertThat(w.tryAcquire(T0 + 1, WINDOW, 10)).isPositive();
+        int admitted = 0;
+        while (w.tryAcquire(T0 + 2 * WINDOW, WINDOW, 10) == 0) admitted++;
+        assertThat(admitted).isEqualTo(10);
+    }
+
+    @Test
+    void retryAfterCoversTheWaitUntilTheNextAdmission() {
+        var w = new InMemorySlidingWindowLimiter.Window();
+        for (int i = 0; i < 10; i++) w.tryAcquire(T0, WINDOW, 10);
+        long retryAfter = w.tryAcquire(T0 + 1_000, WINDOW, 10);
+        assertThat(retryAfter).isPositive();
+        long later = T0 + 1_000 + retryAfter * 1000;
+        assertThat(w.tryAcquire(later, WINDOW, 10)).isZero();
+    }
+
+    @Test
+    void concurrentAcquiresNeverAdmitMoreThanTheLimit() throws Exception {
+        var w = new InMemorySlidingWindowLimiter.Window();
+        int threads = 8, perThread = 1_000, limit = 2_500;
+        AtomicInteger admitted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            for (int t = 0; t < threads; t++) {
+                pool.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < perThread; i++) {
+                        if (w.tryAcquire(T0 + 1, WINDOW, limit) == 0) admitted.incrementAndGet();
+                    }
+                });
+            }
+            start.countDown();
+        } finally {
+            pool.shutdown();
+        }
+        assertThat(pool.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+        assertThat(admitted.get()).isEqualTo(limit);
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.authservice.security;
+
+import com.example.authservice.domain.user.User;
+import com.example.authservice.domain.user.UserCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class LoginAttemptTrackerTest {
+    private static final long USER_ID = 7L;
+    private static final String EMAIL = "u@example.com";
+
+    private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+    private final UserCache userCache = mock(UserCache.class);
+    private final AccountStatusCache accountStatus = mock(AccountStatusCache.class);
+    private final User user = User.builder().id(USER_ID).email(EMAIL).build();
+    private LoginAttemptTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        tracker = new LoginAttemptTracker(jdbc, mock(PlatformTransactionManager.class), userCache, accountStatus, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(tracker, "enabled", true);
+        ReflectionTestUtils.setField(tracker, "maxFailures", 3);
+        ReflectionTestUtils.setField(tracker, "baseMinutes", 1L);
+        ReflectionTestUtils.setField(tracker, "maxMinutes", 60L);
+        ReflectionTestUtils.setField(tracker, "maxLockouts", 3);
+        ReflectionTestUtils.setField(tracker, "idleMinutes", 30L);
+        when(userCache.findByEmail(EMAIL)).thenReturn(Optional.of(user));
+    }
+
+    @Test
+    void failuresBelowTheThresholdAreWrittenInOneBatch() {
+        tracker.recordFailure(EMAIL);
+        tracker.recordFailure(EMAIL);
+        tracker.flush();
+
+        assertThat(flushedRows()).containsExactly(List.of(2, 0, USER_ID));
+        verify(jdbc, never()).update(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void eachLockoutDoublesTheCooldownUntilThePermanentLock() {
+        for (int lockout = 1; lockout <= 3; lockout++) {
+            for (int i = 0; i < 3; i++) tracker.recordFailure(EMAIL);
+            LocalDateTime before = LocalDateTime.now();
+            Object[] args = lastLockArgs();
+            assertThat(args[0]).isEqualTo(lockout);
+            long minutes = 1L << (lockout - 1);
+            assertThat(((Timestamp) args[1]).toLocalDateTime()).isCloseTo(before.plusMinutes(minutes), within(5, ChronoUnit.SECONDS));
+            assertThat(args[2]).isEqualTo(lockout == 3);
+            assertThat(args[3]).isEqualTo(USER_ID);
+        }
+        verify(userCache, times(3)).evict(EMAIL);
+        verify(accountStatus, times(3)).evict(USER_ID);
+    }
+
+    @Test
+    void lockStatementKeepsAnExistingManualLock() {
+        for (int i = 0; i < 3; i++) tracker.recordFailure(EMAIL);
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbc).update(sql.capture(), any(Object[].class));
+        assertThat(sql.getValue()).contains("account_locked = account_locked OR ?");
+    }
+
+    @Test
+    void successResetsBothCountersAndTheEscalation() {
+        for (int i = 0; i < 3; i++) tracker.recordFailure(EMAIL);
+        tracker.recordFailure(EMAIL);
+        tracker.recordSuccess(User.builder().id(USER_ID).email(EMAIL).failedAttempts(1).lockoutCount(1).build());
+        tracker.flush();
+        assertThat(flushedRows()).containsExactly(List.of(0, 0, USER_ID));
+
+        // the next lockout starts over at the base cooldown
+        clearInvocations(jdbc);
+        for (int i = 0; i < 3; i++) tracker.recordFailure(EMAIL);
+        assertThat(lastLockArgs()[0]).isEqualTo(1);
+    }
+
+    @Test
+    void successWithNothingToResetWritesNothing() {
+        tracker.recordSuccess(user);
+        tracker.flush();
+        verifyNoInteractions(jdbc);
+    }
+
+    @Test
+    void flushForgetsResetStatesButKeepsRunningCounts() {
+        tracker.recordFailure(EMAIL);
+        tracker.flush();
+        assertThat(states()).containsKey(USER_ID);
+
+        tracker.recordSuccess(User.builder().id(USER_ID).email(EMAIL).failedAttempts(1).build());
+        tracker.flush();
+        assertThat(states()).isEmpty();
+
+        // a failure after the state was forgotten starts from the stored row
+        when(userCache.findByEmail(EMAIL)).thenReturn(Optional.of(User.builder().id(USER_ID).email(EMAIL).failedAttempts(2).build()));
+        clearInvocations(jdbc);
+        tracker.recordFailure(EMAIL);
+        verify(jdbc).update(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void failedWriteIsRetriedOnTheNextFlush() {
+        tracker.recordFailure(EMAIL);
+        when(jdbc.batchUpdate(anyString(), anyList())).thenThrow(new DataAccessResourceFailureException("down"));
+        tracker.flush();
+
+        reset(jdbc);
+        tracker.flush();
+        assertThat(flushedRows()).containsExactly(List.of(1, 0, USER_ID));
+    }
+
+    @Test
+    void failureRecordedDuringAWriteIsNotMarkedClean() {
+        tracker.recordFailure(EMAIL);
+        // a second failure lands while the batch holding the first is being written
+        when(jdbc.batchUpdate(anyString(), anyList())).thenAnswer(inv -> {
+            tracker.recordFailure(EMAIL);
+            return new int[]{1};
+        }).thenReturn(new int[]{1});
+        tracker.flush();
+        tracker.flush();
+
+        ArgumentCaptor<List<Object[]>> batches = batchCaptor();
+        verify(jdbc, times(2)).batchUpdate(anyString(), batches.capture());
+        assertThat(List.of(batches.getAllValues().get(1).get(0))).isEqualTo(List.of(2, 0, USER_ID));
+    }
+
+    @Test
+    void failureAfterALockIsFlushedWithTheLockoutCount() {
+        for (int i = 0; i < 3; i++) tracker.recordFailure(EMAIL);
+        tracker.recordFailure(EMAIL);
+        tracker.flush();
+        assertThat(flushedRows()).containsExactly(List.of(1, 1, USER_ID));
+    }
+
+    @Test
+    void unknownEmailsAreIgnored() {
+        when(userCache.findByEmail("nobody@example.com")).thenReturn(Optional.empty());
+        tracker.recordFailure("nobody@example.com");
+        tracker.flush();
+        verifyNoInteractions(jdbc);
+        assertThat(states()).isEmpty();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArgumentCaptor<List<Object[]>> batchCaptor() {
+        return ArgumentCaptor.forClass(List.class);
+    }
+
+    private List<List<Object>> flushedRows() {
+        ArgumentCaptor<List<Object[]>> batch = batchCaptor();
+        verify(jdbc, atLeastOnce()).batchUpdate(anyString(), batch.capture());
+        return batch.getValue().stream().map(List::of).toList();
+    }
+
+    private Object[] lastLockArgs() {
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbc, atLeastOnce()).update(anyString(), args.capture());
+        List<Object[]> all = args.getAllValues();
+        return all.get(all.size() - 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, ?> states() {
+        return (Map<Long, ?>) ReflectionTestUtils.getField(tracker, "states");
+    }
+}